@@ -0,0 +1,49 @@
+package pack;
+
+import java.util.function.Function;
+
+// The ways a single number's Kaprekar sequence can be analyzed. All of them produce identical
+// KaprekarResults; they differ in time and memory.
+public enum AnalysisEngine {
+    // Keeps the whole trajectory and scans it for repeats after every step
+    SEQUENCE_HISTORY,
+    // Brent's cycle detection: constant memory, no history scan
+    BRENT,
+    // Memoizes every resolved value, so shared trajectory tails are walked only once
+    SUCCESSOR_GRAPH,
+    // Precomputes the outcome of every value in a shared off-heap table (small configurations only)
+    DENSE_TABLE,
+    // Follows digit-count vectors instead of numbers: O(base) per step whatever the number of digits
+    MULTISET_DYNAMICS;
+
+    /**
+     * Creates an analyzer for one configuration. The returned function is not thread-safe for
+     * SUCCESSOR_GRAPH and MULTISET_DYNAMICS; give each thread its own. For DENSE_TABLE this builds
+     * the configuration's table unless it is already resident.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A function from a number's digits to its KaprekarResult.
+     */
+    public Function<int[], KaprekarResult> newAnalyzer(int n, int base) {
+        switch (this) {
+            case BRENT:
+                return digits -> o7_16_2025.analyzeKaprekarSequenceBrent(digits, n, base);
+            case MULTISET_DYNAMICS:
+                return new MultisetDynamics(n, base)::analyze;
+            case DENSE_TABLE:
+                if (DenseKaprekarTable.fits(n, base)) {
+                    return DenseKaprekarTable.forConfiguration(n, base, Long.MAX_VALUE)::analyze;
+                }
+                // Too many values for a table: use the successor graph instead
+                return SUCCESSOR_GRAPH.newAnalyzer(n, base);
+            case SUCCESSOR_GRAPH:
+                // The successor graph keys its nodes by packed values, so wide numbers use Brent's walk
+                if (KaprekarKernel.fitsInLong(n, base)) {
+                    return new SuccessorGraph(n, base)::analyze;
+                }
+                return digits -> o7_16_2025.analyzeKaprekarSequenceBrent(digits, n, base);
+            default:
+                return digits -> o7_16_2025.analyzeKaprekarSequence(digits, n, base);
+        }
+    }
+}
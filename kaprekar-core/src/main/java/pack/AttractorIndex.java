@@ -0,0 +1,70 @@
+package pack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Assigns dense slot numbers to attractors, keyed by their canonical element (the fixed point
+// itself, or a cycle's smallest element). When n-digit numbers fit in a long the key is the packed
+// value in a primitive LongIntHashMap; wider numbers fall back to a HashMap keyed by digit content.
+class AttractorIndex {
+    private final int base;
+    private final LongIntHashMap packedSlots;
+    private final Map<DigitKey, Integer> wideSlots;
+    private int size = 0;
+
+    public AttractorIndex(int n, int base) {
+        this.base = base;
+        if (KaprekarKernel.fitsInLong(n, base)) {
+            this.packedSlots = new LongIntHashMap(16, -1);
+            this.wideSlots = null;
+        } else {
+            this.packedSlots = null;
+            this.wideSlots = new HashMap<>();
+        }
+    }
+
+    /**
+     * Looks up the slot of an attractor, registering it if it is new. New attractors get the
+     * slot number `size() - 1` after the call.
+     * @param canonicalDigits The attractor's canonical element; not retained.
+     * @return The attractor's slot number.
+     */
+    public int getOrAdd(int[] canonicalDigits) {
+        if (packedSlots != null) {
+            long key = o7_16_2025.digitsToLong(canonicalDigits, base);
+            int slot = packedSlots.get(key);
+            if (slot < 0) {
+                slot = size++;
+                packedSlots.put(key, slot);
+            }
+            return slot;
+        }
+        return wideSlots.computeIfAbsent(new DigitKey(canonicalDigits.clone()), key -> size++);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Content-based key for digit arrays too wide to pack.
+    private static final class DigitKey {
+        private final int[] digits;
+        private final int hash;
+
+        DigitKey(int[] digits) {
+            this.digits = digits;
+            this.hash = Arrays.hashCode(digits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof DigitKey && Arrays.equals(digits, ((DigitKey) o).digits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+} // End of class AttractorIndex
@@ -0,0 +1,211 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Kaprekar step for a block of numbers at once, in structure-of-arrays form: digits[p][lane] is
+// digit p (most significant first) of the number in that lane. A step sorts every lane's digits
+// with a fixed sorting network for n, whose compare-exchanges are a min and a max across all
+// lanes, and then subtracts increasing from decreasing order position by position with a per-lane
+// borrow. There are no data-dependent branches, so the same instructions serve every lane.
+//
+// create() returns the jdk.incubator.vector implementation (VectorBatchKaprekarKernel) when that
+// module is in the boot layer (java --add-modules jdk.incubator.vector), and this scalar one
+// otherwise; the loops of the scalar one are simple enough for the JIT to auto-vectorize. Both give
+// exactly the digits of subtractSortedNumbers(getDecreasingOrder, getIncreasingOrder), for any n.
+// An instance holds the lanes of one block and is single-threaded.
+class BatchKaprekarKernel {
+    private static final boolean VECTOR_API_AVAILABLE =
+            ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    final int n;
+    final int base;
+    final int capacity;
+    // The block's numbers; step() replaces them with their successors
+    final int[][] digits;
+    // Scratch lanes the network sorts into ascending order
+    final int[][] sorted;
+    // Per-lane borrow of the subtraction, 0 or 1
+    final int[] borrows;
+    // Compare-exchange pairs (low position, high position), flattened
+    final int[] network;
+
+    BatchKaprekarKernel(int n, int base, int capacity) {
+        this.n = n;
+        this.base = base;
+        this.capacity = capacity;
+        this.digits = new int[n][capacity];
+        this.sorted = new int[n][capacity];
+        this.borrows = new int[capacity];
+        this.network = sortingNetwork(n);
+    }
+
+    /**
+     * Creates a kernel, vectorized if the Vector API is available.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param capacity The number of lanes in a block.
+     * @return The kernel.
+     */
+    static BatchKaprekarKernel create(int n, int base, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A block needs at least one lane.");
+        }
+        // VectorBatchKaprekarKernel is only loaded on this branch, so without the module the
+        // incubator classes it refers to are never resolved
+        return VECTOR_API_AVAILABLE ? new VectorBatchKaprekarKernel(n, base, capacity)
+                                    : new BatchKaprekarKernel(n, base, capacity);
+    }
+
+    static boolean isVectorApiAvailable() {
+        return VECTOR_API_AVAILABLE;
+    }
+
+    /**
+     * Replaces the numbers in lanes 0 .. count - 1 by their Kaprekar successors.
+     * @param count The number of lanes in use.
+     */
+    void step(int count) {
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelSteps(count);
+        }
+        stepLanes(0, count);
+    }
+
+    /**
+     * The scalar step of lanes from .. to - 1; VectorBatchKaprekarKernel uses it for the lanes
+     * after its last full vector.
+     */
+    final void stepLanes(int from, int to) {
+        for (int p = 0; p < n; p++) {
+            System.arraycopy(digits[p], from, sorted[p], from, to - from);
+        }
+        for (int c = 0; c < network.length; c += 2) {
+            int[] low = sorted[network[c]];
+            int[] high = sorted[network[c + 1]];
+            for (int lane = from; lane < to; lane++) {
+                int a = low[lane];
+                int b = high[lane];
+                low[lane] = Math.min(a, b);
+                high[lane] = Math.max(a, b);
+            }
+        }
+        // Position p of the decreasing order is sorted[n - 1 - p] and of the increasing order sorted[p];
+        // digits[p] is free to overwrite once both are read
+        for (int lane = from; lane < to; lane++) {
+            borrows[lane] = 0;
+        }
+        for (int p = n - 1; p >= 0; p--) {
+            int[] larger = sorted[n - 1 - p];
+            int[] smaller = sorted[p];
+            int[] result = digits[p];
+            for (int lane = from; lane < to; lane++) {
+                int difference = larger[lane] - smaller[lane] - borrows[lane];
+                borrows[lane] = difference >>> 31;
+                result[lane] = difference + (base & (difference >> 31));
+            }
+        }
+    }
+
+    /**
+     * Fills lanes 0 .. count - 1 with the consecutive packed values first, first + 1, ...
+     * @param first The first packed value (see o7_16_2025.digitsToLong).
+     * @param count The number of lanes to fill.
+     */
+    void loadRange(long first, int count) {
+        long value = first;
+        for (int p = n - 1; p >= 0; p--) {
+            digits[p][0] = (int) (value % base);
+            value /= base;
+        }
+        // Each next value is the previous one plus one, with a carry
+        for (int lane = 1; lane < count; lane++) {
+            int p = n - 1;
+            while (p >= 0 && digits[p][lane - 1] == base - 1) {
+                digits[p][lane] = 0;
+                p--;
+            }
+            if (p >= 0) {
+                digits[p][lane] = digits[p][lane - 1] + 1;
+            }
+            for (int q = p - 1; q >= 0; q--) {
+                digits[q][lane] = digits[q][lane - 1];
+            }
+        }
+    }
+
+    /**
+     * Packs lanes 0 .. count - 1 into ints; only exact while base^n fits in an int.
+     * @param target Receives the packed values.
+     * @param offset Where in target lane 0 goes.
+     * @param count The number of lanes to pack.
+     */
+    void storePacked(int[] target, int offset, int count) {
+        for (int lane = 0; lane < count; lane++) {
+            target[offset + lane] = 0;
+        }
+        for (int p = 0; p < n; p++) {
+            int[] row = digits[p];
+            for (int lane = 0; lane < count; lane++) {
+                target[offset + lane] = target[offset + lane] * base + row[lane];
+            }
+        }
+    }
+
+    /**
+     * Copies a number into a lane.
+     * @param lane The lane.
+     * @param number The number's n digits, most significant first.
+     */
+    void setNumber(int lane, int[] number) {
+        for (int p = 0; p < n; p++) {
+            digits[p][lane] = number[p];
+        }
+    }
+
+    /**
+     * Copies a lane's number out.
+     * @param lane The lane.
+     * @param number Receives the n digits, most significant first.
+     */
+    void getNumber(int lane, int[] number) {
+        for (int p = 0; p < n; p++) {
+            number[p] = digits[p][lane];
+        }
+    }
+
+    /**
+     * Builds Batcher's odd-even merge sorting network for n inputs. The network for the next
+     * power of two is generated and comparators that touch a position >= n are dropped, which is
+     * exact because those positions would only ever hold values above every real one.
+     * @param n The number of inputs.
+     * @return Pairs (low, high) flattened into one array; after applying every pair in order,
+     *         positions 0 .. n - 1 are in ascending order.
+     */
+    static int[] sortingNetwork(int n) {
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        List<Integer> pairs = new ArrayList<>();
+        for (int p = 1; p < size; p <<= 1) {
+            for (int k = p; k >= 1; k >>= 1) {
+                for (int j = k % p; j + k < size; j += 2 * k) {
+                    for (int i = 0; i < k; i++) {
+                        int low = i + j;
+                        int high = i + j + k;
+                        if (low / (2 * p) == high / (2 * p) && high < n) {
+                            pairs.add(low);
+                            pairs.add(high);
+                        }
+                    }
+                }
+            }
+        }
+        int[] network = new int[pairs.size()];
+        for (int i = 0; i < network.length; i++) {
+            network[i] = pairs.get(i);
+        }
+        return network;
+    }
+} // End of class BatchKaprekarKernel
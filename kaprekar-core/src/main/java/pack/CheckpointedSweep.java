@@ -0,0 +1,312 @@
+package pack;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// A sweep that can be interrupted and resumed. The enumeration is cut into a fixed sequence of
+// chunks: numbers sharing their leading digits, or multisets sharing their top-digit counts. Chunks
+// are swept in enumeration order and merged left to right, and every so often the index of the next
+// chunk is saved together with the aggregate so far. A resumed run restores both and carries on,
+// so its report is identical to that of an uninterrupted run.
+//
+// Checkpoint layout (big-endian):
+//   int  magic          "KPCK"
+//   int  version        FORMAT_VERSION
+//   int  n
+//   int  base
+//   int  mode           0 for digit arrays, 1 for multisets
+//   int  prefix length  leading digits (or top-digit counts) fixed per chunk
+//   long cursor         chunks already in the aggregate
+//   long chunk count
+//   long body length in bytes
+//   long CRC32 of the body
+//   body                KaprekarAggregate.writeTo()
+class CheckpointedSweep {
+    private static final int MAGIC = 0x4B50434B; // "KPCK"
+    static final int FORMAT_VERSION = 1;
+    private static final ChecksummedFile FORMAT = new ChecksummedFile(MAGIC, FORMAT_VERSION, 4 * 4 + 2 * 8, "checkpoint file");
+
+    // Upper bound on the digit arrays in one chunk of the digit-space sweep
+    private static final long CHUNK_NUMBERS = 1 << 20;
+    // Top digits fixed per chunk of the multiset sweep
+    private static final int MULTISET_PREFIX_DEPTH = 3;
+
+    static final double DEFAULT_INTERVAL_SECONDS = 60;
+
+    private final Path directory;
+    private final long intervalNanos;
+    private final boolean resume;
+
+    // One way of cutting a configuration into chunks; ShardedSweep splits the same chunks across processes
+    interface Chunks {
+        int prefixLength();
+
+        long count();
+
+        /**
+         * Sweeps one chunk.
+         * @param chunk The chunk's index, from 0 to count() - 1.
+         * @param analyzer The analyzer to use.
+         * @param aggregate Receives the chunk's results.
+         */
+        void sweep(long chunk, Function<int[], KaprekarResult> analyzer, KaprekarAggregate aggregate);
+    }
+
+    /**
+     * @param directory Where checkpoint files live; it is created on the first checkpoint.
+     * @param intervalNanos The minimum time between two checkpoints.
+     * @param resume Whether to continue from an existing checkpoint instead of starting over.
+     */
+    public CheckpointedSweep(Path directory, long intervalNanos, boolean resume) {
+        this.directory = directory;
+        this.intervalNanos = intervalNanos;
+        this.resume = resume;
+    }
+
+    /**
+     * Returns the checkpoint file for one configuration.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether the sweep walks digit multisets.
+     * @return The path, whether or not the file exists.
+     */
+    public Path fileFor(int n, int base, boolean useMultisetEnumeration) {
+        return directory.resolve("kaprekar-n" + n + "-base" + base
+                + (useMultisetEnumeration ? "-multisets" : "-digits") + ".ckpt");
+    }
+
+    /**
+     * Sweeps a configuration, checkpointing along the way. The checkpoint is deleted once the
+     * sweep completes. If the deadline passes, the progress so far is checkpointed first, so a
+     * later run with `resume` picks up where this one stopped.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param parallelism Worker threads for the sweep; 1 runs it on the calling thread.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number.
+     * @throws SweepTimeoutException if the deadline passed before the sweep finished.
+     */
+    public KaprekarAggregate run(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine,
+                                 int parallelism, long deadlineNanos) {
+        Chunks chunks = chunksFor(n, base, useMultisetEnumeration);
+        Path file = fileFor(n, base, useMultisetEnumeration);
+        int mode = useMultisetEnumeration ? 1 : 0;
+
+        KaprekarAggregate aggregate = null;
+        long cursor = 0;
+        if (resume) {
+            long[] loadedCursor = new long[1];
+            aggregate = load(file, n, base, mode, chunks, loadedCursor);
+            if (aggregate != null) {
+                cursor = loadedCursor[0];
+                System.err.println("Resuming " + n + "-digit numbers in Base " + base + " from chunk "
+                        + cursor + " of " + chunks.count() + ".");
+            }
+        }
+        if (aggregate == null) {
+            aggregate = new KaprekarAggregate(n, base);
+        }
+
+        ThreadLocal<Function<int[], KaprekarResult>> analyzers = ThreadLocal.withInitial(
+                () -> o7_16_2025.withDeadline(SweepMetrics.instrument(engine.newAnalyzer(n, base)), deadlineNanos));
+        ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        long lastCheckpoint = System.nanoTime();
+        try {
+            while (cursor < chunks.count()) {
+                // Enough chunks to keep every worker busy, merged in order as they complete, so a
+                // timeout keeps every chunk before the first unfinished one
+                int batch = (int) Math.min(executor == null ? 1 : 2L * parallelism, chunks.count() - cursor);
+                List<Future<KaprekarAggregate>> futures = new ArrayList<>(batch);
+                if (executor != null) {
+                    for (int i = 0; i < batch; i++) {
+                        long chunk = cursor + i;
+                        futures.add(executor.submit(() -> sweepChunk(chunks, chunk, n, base, analyzers)));
+                    }
+                }
+                for (int i = 0; i < batch; i++) {
+                    KaprekarAggregate part;
+                    try {
+                        part = executor == null
+                                ? sweepChunk(chunks, cursor, n, base, analyzers)
+                                : await(futures.get(i));
+                    } catch (SweepTimeoutException e) {
+                        save(file, n, base, mode, chunks, cursor, aggregate);
+                        throw e;
+                    }
+                    aggregate.merge(part);
+                    cursor++;
+                }
+
+                if (cursor < chunks.count() && System.nanoTime() - lastCheckpoint >= intervalNanos) {
+                    save(file, n, base, mode, chunks, cursor, aggregate);
+                    lastCheckpoint = System.nanoTime();
+                }
+            }
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Warning: could not delete checkpoint " + file + ": " + e);
+        }
+        return aggregate;
+    }
+
+    private static KaprekarAggregate sweepChunk(Chunks chunks, long chunk, int n, int base,
+                                                ThreadLocal<Function<int[], KaprekarResult>> analyzers) {
+        KaprekarAggregate part = new KaprekarAggregate(n, base);
+        chunks.sweep(chunk, analyzers.get(), part);
+        return part;
+    }
+
+    // Waits for a chunk, rethrowing whatever stopped it, SweepTimeoutException in particular
+    private static KaprekarAggregate await(Future<KaprekarAggregate> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sweeping", e);
+        }
+    }
+
+    /**
+     * Cuts a configuration into the chunks a checkpointed sweep works through.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to cut the multiset space instead of the digit space.
+     * @return The chunks, in enumeration order.
+     */
+    static Chunks chunksFor(int n, int base, boolean useMultisetEnumeration) {
+        return useMultisetEnumeration ? multisetChunks(n, base) : digitChunks(n, base);
+    }
+
+    /**
+     * Cuts the digit-array sweep into runs of numbers that share their leading digits. The prefix is
+     * as short as possible while keeping every chunk at or below CHUNK_NUMBERS arrays.
+     */
+    private static Chunks digitChunks(int n, int base) {
+        int prefixLength = n;
+        long chunkSize = 1;
+        while (prefixLength > 1 && chunkSize * base <= CHUNK_NUMBERS) {
+            chunkSize *= base;
+            prefixLength--;
+        }
+        // Prefixes are the prefixLength-digit values, without a leading zero unless n = 1
+        long limit = 1;
+        for (int i = 0; i < prefixLength; i++) {
+            limit = Math.multiplyExact(limit, base);
+        }
+        long firstPrefix = n > 1 ? limit / base : 0;
+        long count = limit - firstPrefix;
+        int length = prefixLength;
+
+        return new Chunks() {
+            @Override
+            public int prefixLength() {
+                return length;
+            }
+
+            @Override
+            public long count() {
+                return count;
+            }
+
+            @Override
+            public void sweep(long chunk, Function<int[], KaprekarResult> analyzer, KaprekarAggregate aggregate) {
+                int[] prefix = o7_16_2025.longToPaddedDigits(firstPrefix + chunk, length, base);
+                o7_16_2025.forEachNumberWithPrefix(prefix, n, base, digits -> aggregate.add(analyzer.apply(digits)));
+            }
+        };
+    }
+
+    /**
+     * Cuts the multiset sweep into the multisets that share the counts of their largest digits.
+     */
+    private static Chunks multisetChunks(int n, int base) {
+        List<int[]> prefixes = MultisetEnumerator.prefixes(n, base, MULTISET_PREFIX_DEPTH);
+        return new Chunks() {
+            @Override
+            public int prefixLength() {
+                return prefixes.get(0).length;
+            }
+
+            @Override
+            public long count() {
+                return prefixes.size();
+            }
+
+            @Override
+            public void sweep(long chunk, Function<int[], KaprekarResult> analyzer, KaprekarAggregate aggregate) {
+                MultisetEnumerator.forEachMultiset(n, base, prefixes.get((int) chunk),
+                        (descendingDigits, weight) -> o7_16_2025.analyzeMultiset(descendingDigits, weight, base, analyzer, aggregate));
+            }
+        };
+    }
+
+    /**
+     * Writes a checkpoint. A checkpoint that cannot be written is reported and skipped, since
+     * the sweep itself can still finish.
+     */
+    private static void save(Path file, int n, int base, int mode, Chunks chunks, long cursor,
+                             KaprekarAggregate aggregate) {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(file.getParent());
+            FORMAT.write(file, key -> {
+                key.putInt(n);
+                key.putInt(base);
+                key.putInt(mode);
+                key.putInt(chunks.prefixLength());
+                key.putLong(cursor);
+                key.putLong(chunks.count());
+            }, aggregate);
+        } catch (IOException e) {
+            System.err.println("Warning: could not write checkpoint " + file + ": " + e);
+        }
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addPhase(SweepMetrics.Phase.CHECKPOINT_IO, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Reads a checkpoint written for the same configuration and chunking.
+     * @param cursor Receives the index of the next chunk to sweep.
+     * @return The aggregate of the chunks before the cursor, or null if there is no usable checkpoint.
+     */
+    private static KaprekarAggregate load(Path file, int n, int base, int mode, Chunks chunks, long[] cursor) {
+        return FORMAT.read(file, n, base, key -> {
+            if (key.getInt() != n || key.getInt() != base || key.getInt() != mode
+                    || key.getInt() != chunks.prefixLength()) {
+                return "written for a different configuration";
+            }
+            cursor[0] = key.getLong();
+            if (key.getLong() != chunks.count() || cursor[0] < 0 || cursor[0] > chunks.count()) {
+                return "written for a different chunking";
+            }
+            return null;
+        }, reason -> discard(file, reason));
+    }
+
+    private static void discard(Path file, String reason) {
+        System.err.println("Ignoring checkpoint " + file + " (" + reason + "); the sweep starts over.");
+    }
+} // End of class CheckpointedSweep
@@ -0,0 +1,173 @@
+package pack;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+// One serialized aggregate behind a validated header, the format shared by ResultStore,
+// CheckpointedSweep and ShardedSweep. Each format has its own magic number, version and key fields.
+//
+// Layout (big-endian):
+//   int  magic
+//   int  version
+//   key            keySize bytes written by the format's owner, e.g. n and base
+//   long body length in bytes
+//   long CRC32 of the body
+//   body           KaprekarAggregate.writeTo()
+// A reader rejects a file whose header, key or checksum does not match, so the caller can treat
+// it as missing.
+final class ChecksummedFile {
+    private final int magic;
+    private final int version;
+    private final int keySize;
+    private final String description;
+
+    /**
+     * @param magic The first int of every file of this format.
+     * @param version The current format version; files with another version are rejected as stale.
+     * @param keySize The size in bytes of the key fields between the version and the body length.
+     * @param description What the file is, e.g. "result file", for rejection messages.
+     */
+    ChecksummedFile(int magic, int version, int keySize, String description) {
+        this.magic = magic;
+        this.version = version;
+        this.keySize = keySize;
+        this.description = description;
+    }
+
+    private int headerSize() {
+        return 4 + 4 + keySize + 8 + 8;
+    }
+
+    /**
+     * Writes an aggregate atomically, replacing any earlier file, see `writeAtomically`.
+     * @param file The file to write; its directory must exist.
+     * @param key Writes exactly keySize bytes of key fields at the buffer's position.
+     * @param aggregate The aggregate to store.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path file, Consumer<ByteBuffer> key, KaprekarAggregate aggregate) throws IOException {
+        int bodyLength = aggregate.serializedSize();
+        writeAtomically(file, headerSize() + bodyLength, mapped -> {
+            ByteBuffer body = mapped.slice(headerSize(), bodyLength);
+            aggregate.writeTo(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(body.flip());
+            mapped.putInt(magic);
+            mapped.putInt(version);
+            key.accept(mapped);
+            mapped.putLong(bodyLength);
+            mapped.putLong(crc.getValue());
+        });
+    }
+
+    /**
+     * Reads an aggregate back, checking the header, the key and the checksum first.
+     * @param file The file to read.
+     * @param n The number of digits the aggregate must have.
+     * @param base The base the aggregate must have.
+     * @param checkKey Reads the key fields at the buffer's position and returns null if they match,
+     *                 or the reason for rejecting the file.
+     * @param reject Receives the reason when the file is rejected.
+     * @return The aggregate, or null if the file does not exist or was rejected.
+     */
+    KaprekarAggregate read(Path file, int n, int base, Function<ByteBuffer, String> checkKey, Consumer<String> reject) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < headerSize()) {
+                return rejected(reject, "file is shorter than its header");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (mapped.getInt() != magic) {
+                return rejected(reject, "not a " + description);
+            }
+            int fileVersion = mapped.getInt();
+            if (fileVersion != version) {
+                return rejected(reject, "format version " + fileVersion + ", expected " + version);
+            }
+            String keyMismatch = checkKey.apply(mapped);
+            if (keyMismatch != null) {
+                return rejected(reject, keyMismatch);
+            }
+            long bodyLength = mapped.getLong();
+            long checksum = mapped.getLong();
+            if (bodyLength != size - headerSize()) {
+                return rejected(reject, "length mismatch");
+            }
+
+            ByteBuffer body = mapped.slice();
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate());
+            if (crc.getValue() != checksum) {
+                return rejected(reject, "checksum mismatch");
+            }
+
+            KaprekarAggregate aggregate = KaprekarAggregate.readFrom(body, n, base);
+            if (body.hasRemaining()) {
+                return rejected(reject, "trailing bytes after the results");
+            }
+            return aggregate;
+        } catch (IOException e) {
+            return rejected(reject, e.toString());
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            // Only reachable if the checksum matched by chance or the writer had a bug
+            return rejected(reject, "malformed results: " + e);
+        }
+    }
+
+    private static KaprekarAggregate rejected(Consumer<String> reject, String reason) {
+        reject.accept(reason);
+        return null;
+    }
+
+    /**
+     * Writes a file through a memory map under a temporary name in the same directory, forces it to
+     * disk and then renames it over `file`, so readers see either the old file or the complete new one.
+     * @param file The file to replace; its directory must exist.
+     * @param size The exact size of the new file in bytes.
+     * @param writer Fills the mapped buffer, which starts at position 0.
+     * @throws IOException if the file cannot be written.
+     */
+    static void writeAtomically(Path file, int size, Consumer<MappedByteBuffer> writer) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                writer.accept(mapped);
+                mapped.force();
+            }
+            moveIntoPlace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Renames a completely written file over another, atomically where the file system allows it.
+     * @param temp The new file, in the same directory as `file`.
+     * @param file The file to replace.
+     * @throws IOException if the file cannot be moved.
+     */
+    static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+} // End of class ChecksummedFile
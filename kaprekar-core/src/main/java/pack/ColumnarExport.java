@@ -0,0 +1,654 @@
+package pack;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// The outcome of every number of a configuration in a compact columnar file, for analysis outside
+// this program. Row r belongs to the r-th valid number in the order of o7_16_2025.forEachNumber
+// (ascending values without the repdigits), so a number's row follows from its value and the
+// numbers themselves are not stored. A row has two columns: the id of the attractor the number ends
+// in, an index into a dictionary of attractors, and its iterations as in KaprekarResult.
+//
+// Rows are stored in blocks of ROWS_PER_BLOCK. In each block a column is either bit-packed at the
+// width of its largest value or stored as runs of equal values, with run values and run lengths
+// bit-packed, whichever is smaller. Neighbouring numbers often reach the same attractor, so the
+// attractor column is mostly runs. The writer streams the blocks through a buffered FileChannel
+// while the numbers are analyzed, so its memory does not grow with the configuration, and appends
+// the dictionary and the block index at the end. The reader turns a value into its row, finds the
+// row's block through the index and decodes only that block.
+//
+// File layout (big-endian):
+//   int  magic          "KPCX"
+//   int  version        FORMAT_VERSION
+//   int  n
+//   int  base
+//   int  rowsPerBlock
+//   blocks              the attractor column, then the iteration column; a column is
+//                         byte encoding (PACKED or RUNS), byte value width in bits, then
+//                         PACKED: one value per row
+//                         RUNS:   int run count, byte length width, the run values, the run lengths
+//                       packed values fill bytes from the most significant bit, padded to a whole byte
+//   footer              int attractor count, per attractor: int length and the packed elements in
+//                       cycle order, smallest first; int block count, per block: long offset and
+//                       int CRC32 of the block
+//   long rows
+//   long footer offset
+//   long CRC32 of the footer
+//   int  magic
+final class ColumnarExport {
+    private static final int MAGIC = 0x4B504358; // "KPCX"
+    static final int FORMAT_VERSION = 1;
+    static final int ROWS_PER_BLOCK = 1 << 16;
+    private static final int HEADER_SIZE = 5 * 4;
+    private static final int TRAILER_SIZE = 3 * 8 + 4;
+    private static final byte PACKED = 0;
+    private static final byte RUNS = 1;
+    // Size of the write buffer in front of the FileChannel
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private ColumnarExport() {
+    }
+
+    /**
+     * Returns the export file name for one configuration inside a directory.
+     * @param directory The directory.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The path, whether or not the file exists.
+     */
+    static Path fileFor(Path directory, int n, int base) {
+        return directory.resolve("kaprekar-n" + n + "-base" + base + ".kpc");
+    }
+
+    /**
+     * Analyzes every valid number of a configuration and writes the outcomes, replacing any earlier
+     * file. The file is written under a temporary name and moved into place when complete.
+     * @param file The file to write; its directory must exist.
+     * @param n The number of digits.
+     * @param base The base of the number system; n-digit values must fit in a long.
+     * @param deadlineNanos The System.nanoTime() after which the export stops, or Long.MAX_VALUE for none.
+     * @throws IOException if the file cannot be written.
+     * @throws SweepTimeoutException if the deadline passed before the export finished; no file is left behind.
+     */
+    static void write(Path file, int n, int base, long deadlineNanos) throws IOException {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " do not fit in a long");
+        }
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                Writer writer = new Writer(channel, n, base);
+                SuccessorGraph graph = new SuccessorGraph(n, base);
+                KaprekarKernel kernel = new KaprekarKernel(n, base);
+                // Dictionary ids count up in order of first appearance
+                int[] exportIds = new int[16];
+                Arrays.fill(exportIds, -1);
+
+                long low = 1;
+                for (int i = 1; i < n; i++) {
+                    low *= base;
+                }
+                long high = n == 1 ? low : low * base;
+                // Repdigits are the multiples of 11...1
+                long unit = (high - 1) / (base - 1);
+                long nextRepdigit = unit;
+                for (long value = low; value < high; value++) {
+                    if (value == nextRepdigit) {
+                        nextRepdigit += unit;
+                        continue;
+                    }
+                    if ((value & 0xFFF) == 0 && deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+                        throw new SweepTimeoutException();
+                    }
+                    int successor = graph.resolve(kernel.step(value));
+                    int graphId = graph.attractorIdOf(successor);
+                    if (graphId >= exportIds.length) {
+                        int oldLength = exportIds.length;
+                        exportIds = Arrays.copyOf(exportIds, Math.max(graphId + 1, oldLength * 2));
+                        Arrays.fill(exportIds, oldLength, exportIds.length, -1);
+                    }
+                    if (exportIds[graphId] < 0) {
+                        exportIds[graphId] = writer.addAttractor(graph.attractorElements(graphId));
+                    }
+                    // Resolving the successor also resolves the value itself when it lies on the attractor
+                    int iterations = graph.isAttractorElement(value) ? 0 : graph.distanceOf(successor) + 1;
+                    writer.add(exportIds[graphId], iterations);
+                }
+                writer.finish();
+                channel.force(true);
+            }
+            ChecksummedFile.moveIntoPlace(temp, file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Streams blocks to the channel and keeps what the footer needs.
+    private static final class Writer {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long position = 0;
+
+        private final int[] attractorIds = new int[ROWS_PER_BLOCK];
+        private final int[] iterations = new int[ROWS_PER_BLOCK];
+        private final int[] runValues = new int[ROWS_PER_BLOCK];
+        private final int[] runLengths = new int[ROWS_PER_BLOCK];
+        // Neither encoding of a column takes more than its plain 32-bit values
+        private final ByteBuffer block = ByteBuffer.allocate(2 * (2 + 4 * ROWS_PER_BLOCK));
+        private int rowsInBlock = 0;
+        private long rows = 0;
+
+        private final List<long[]> attractors = new ArrayList<>();
+        private long[] blockOffsets = new long[64];
+        private int[] blockChecksums = new int[64];
+        private int blockCount = 0;
+
+        Writer(FileChannel channel, int n, int base) {
+            this.channel = channel;
+            buffer.putInt(MAGIC);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(n);
+            buffer.putInt(base);
+            buffer.putInt(ROWS_PER_BLOCK);
+            position = HEADER_SIZE;
+        }
+
+        /**
+         * Adds an attractor to the dictionary.
+         * @param elements The attractor's packed elements in cycle order; not retained.
+         * @return The attractor's id in the file.
+         */
+        int addAttractor(long[] elements) {
+            int smallest = 0;
+            for (int i = 1; i < elements.length; i++) {
+                if (elements[i] < elements[smallest]) {
+                    smallest = i;
+                }
+            }
+            long[] rotated = new long[elements.length];
+            for (int i = 0; i < elements.length; i++) {
+                rotated[i] = elements[(smallest + i) % elements.length];
+            }
+            attractors.add(rotated);
+            return attractors.size() - 1;
+        }
+
+        void add(int attractorId, int iterationCount) throws IOException {
+            attractorIds[rowsInBlock] = attractorId;
+            iterations[rowsInBlock] = iterationCount;
+            rows++;
+            if (++rowsInBlock == ROWS_PER_BLOCK) {
+                writeBlock();
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            block.clear();
+            encodeColumn(block, attractorIds, rowsInBlock, runValues, runLengths);
+            encodeColumn(block, iterations, rowsInBlock, runValues, runLengths);
+            block.flip();
+            CRC32 crc = new CRC32();
+            crc.update(block.duplicate());
+
+            if (blockCount == blockOffsets.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockCount * 2);
+                blockChecksums = Arrays.copyOf(blockChecksums, blockCount * 2);
+            }
+            blockOffsets[blockCount] = position;
+            blockChecksums[blockCount] = (int) crc.getValue();
+            blockCount++;
+            put(block);
+            rowsInBlock = 0;
+        }
+
+        void finish() throws IOException {
+            if (rowsInBlock > 0) {
+                writeBlock();
+            }
+            int footerSize = 4 + 4 + 12 * blockCount;
+            for (long[] attractor : attractors) {
+                footerSize += 4 + 8 * attractor.length;
+            }
+            ByteBuffer footer = ByteBuffer.allocate(footerSize);
+            footer.putInt(attractors.size());
+            for (long[] attractor : attractors) {
+                footer.putInt(attractor.length);
+                for (long element : attractor) {
+                    footer.putLong(element);
+                }
+            }
+            footer.putInt(blockCount);
+            for (int b = 0; b < blockCount; b++) {
+                footer.putLong(blockOffsets[b]);
+                footer.putInt(blockChecksums[b]);
+            }
+            footer.flip();
+            CRC32 crc = new CRC32();
+            crc.update(footer.duplicate());
+
+            long footerOffset = position;
+            put(footer);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            trailer.putLong(rows);
+            trailer.putLong(footerOffset);
+            trailer.putLong(crc.getValue());
+            trailer.putInt(MAGIC);
+            put(trailer.flip());
+            drain();
+        }
+
+        // Appends bytes through the write buffer
+        private void put(ByteBuffer bytes) throws IOException {
+            position += bytes.remaining();
+            if (bytes.remaining() > buffer.remaining()) {
+                drain();
+            }
+            if (bytes.remaining() > buffer.capacity()) {
+                writeFully(bytes);
+            } else {
+                buffer.put(bytes);
+            }
+        }
+
+        private void drain() throws IOException {
+            long start = SweepMetrics.ENABLED ? System.nanoTime() : 0;
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addPhase(SweepMetrics.Phase.STORE_IO, System.nanoTime() - start);
+            }
+        }
+
+        private void writeFully(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Encodes one column of a block, bit-packed or as runs, whichever is smaller.
+     * @param out Receives the encoded column.
+     * @param values The column's values, all non-negative.
+     * @param count The number of rows in the block.
+     * @param runValues Scratch space for the run values, at least `count` long.
+     * @param runLengths Scratch space for the run lengths, at least `count` long.
+     */
+    private static void encodeColumn(ByteBuffer out, int[] values, int count, int[] runValues, int[] runLengths) {
+        int max = 0;
+        int runs = 0;
+        int maxLength = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, values[i]);
+            if (runs > 0 && runValues[runs - 1] == values[i]) {
+                maxLength = Math.max(maxLength, ++runLengths[runs - 1]);
+            } else {
+                runValues[runs] = values[i];
+                runLengths[runs] = 1;
+                maxLength = Math.max(maxLength, 1);
+                runs++;
+            }
+        }
+        int width = bitWidth(max);
+        int lengthWidth = bitWidth(maxLength);
+        long packedBytes = ((long) count * width + 7) / 8;
+        long runBytes = 4 + 1 + ((long) runs * width + 7) / 8 + ((long) runs * lengthWidth + 7) / 8;
+        if (runBytes < packedBytes) {
+            out.put(RUNS);
+            out.put((byte) width);
+            out.putInt(runs);
+            out.put((byte) lengthWidth);
+            pack(out, runValues, runs, width);
+            pack(out, runLengths, runs, lengthWidth);
+        } else {
+            out.put(PACKED);
+            out.put((byte) width);
+            pack(out, values, count, width);
+        }
+    }
+
+    /**
+     * Decodes one column of a block.
+     * @param in The encoded column; advanced past it.
+     * @param values Receives the column's values.
+     * @param count The number of rows in the block.
+     * @throws IOException if the column is malformed.
+     */
+    private static void decodeColumn(ByteBuffer in, int[] values, int count) throws IOException {
+        byte encoding = in.get();
+        int width = in.get();
+        if (width < 0 || width > 31) {
+            throw new IOException("bad column width " + width);
+        }
+        if (encoding == PACKED) {
+            unpack(in, values, 0, count, width);
+            return;
+        }
+        if (encoding != RUNS) {
+            throw new IOException("unknown column encoding " + encoding);
+        }
+        int runs = in.getInt();
+        int lengthWidth = in.get();
+        if (runs < 0 || runs > count || lengthWidth < 0 || lengthWidth > 31) {
+            throw new IOException("bad run header");
+        }
+        int[] runValues = new int[runs];
+        int[] runLengths = new int[runs];
+        unpack(in, runValues, 0, runs, width);
+        unpack(in, runLengths, 0, runs, lengthWidth);
+        int row = 0;
+        for (int r = 0; r < runs; r++) {
+            if (runLengths[r] > count - row) {
+                throw new IOException("runs longer than the block");
+            }
+            Arrays.fill(values, row, row + runLengths[r], runValues[r]);
+            row += runLengths[r];
+        }
+        if (row != count) {
+            throw new IOException("runs shorter than the block");
+        }
+    }
+
+    // The number of bits needed for values 0 .. max
+    private static int bitWidth(int max) {
+        return 32 - Integer.numberOfLeadingZeros(max);
+    }
+
+    private static void pack(ByteBuffer out, int[] values, int count, int width) {
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = 0; i < count; i++) {
+            bits = (bits << width) | values[i];
+            bitCount += width;
+            while (bitCount >= 8) {
+                bitCount -= 8;
+                out.put((byte) (bits >>> bitCount));
+            }
+        }
+        if (bitCount > 0) {
+            out.put((byte) (bits << (8 - bitCount)));
+        }
+    }
+
+    private static void unpack(ByteBuffer in, int[] values, int from, int count, int width) {
+        if (width == 0) {
+            Arrays.fill(values, from, from + count, 0);
+            return;
+        }
+        long mask = (1L << width) - 1;
+        long bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < from + count; i++) {
+            while (bitCount < width) {
+                bits = (bits << 8) | (in.get() & 0xFF);
+                bitCount += 8;
+            }
+            bitCount -= width;
+            values[i] = (int) ((bits >>> bitCount) & mask);
+        }
+    }
+
+    // Random access to an export file. Lookups decode the block they need and keep the last one,
+    // so scanning neighbouring values is cheap. Not thread-safe; open one reader per thread.
+    static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final int n;
+        private final int base;
+        private final int rowsPerBlock;
+        private final long rows;
+        private final long footerOffset;
+        private final List<long[]> attractors;
+        private final long[] blockOffsets;
+        private final int[] blockChecksums;
+
+        // The smallest n-digit value and the repdigit 11...1, for turning values into rows
+        private final long low;
+        private final long unit;
+
+        private int cachedBlock = -1;
+        private final int[] attractorIds;
+        private final int[] iterations;
+        private ByteBuffer blockBytes = ByteBuffer.allocate(0);
+
+        private Reader(FileChannel channel, int n, int base, int rowsPerBlock, long rows, long footerOffset,
+                       List<long[]> attractors, long[] blockOffsets, int[] blockChecksums) {
+            this.channel = channel;
+            this.n = n;
+            this.base = base;
+            this.rowsPerBlock = rowsPerBlock;
+            this.rows = rows;
+            this.footerOffset = footerOffset;
+            this.attractors = attractors;
+            this.blockOffsets = blockOffsets;
+            this.blockChecksums = blockChecksums;
+            long power = 1;
+            for (int i = 1; i < n; i++) {
+                power *= base;
+            }
+            this.low = power;
+            this.unit = n == 1 ? 1 : (power * base - 1) / (base - 1);
+            this.attractorIds = new int[rowsPerBlock];
+            this.iterations = new int[rowsPerBlock];
+        }
+
+        /**
+         * Opens an export file and reads its dictionary and block index.
+         * @param file The file written by `ColumnarExport.write`.
+         * @return The reader; close it when done.
+         * @throws IOException if the file cannot be read or is not a complete, intact export file.
+         */
+        static Reader open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                if (size < HEADER_SIZE + TRAILER_SIZE) {
+                    throw new IOException(file + " is too short for an export file");
+                }
+                ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+                if (header.getInt() != MAGIC) {
+                    throw new IOException(file + " is not an export file");
+                }
+                int version = header.getInt();
+                if (version != FORMAT_VERSION) {
+                    throw new IOException(file + " has format version " + version + ", expected " + FORMAT_VERSION);
+                }
+                int n = header.getInt();
+                int base = header.getInt();
+                int rowsPerBlock = header.getInt();
+                if (base < 2 || base > 36 || n < 1 || !KaprekarKernel.fitsInLong(n, base) || rowsPerBlock <= 0) {
+                    throw new IOException(file + " has a malformed header");
+                }
+
+                ByteBuffer trailer = readFully(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+                long rows = trailer.getLong();
+                long footerOffset = trailer.getLong();
+                long checksum = trailer.getLong();
+                if (trailer.getInt() != MAGIC) {
+                    throw new IOException(file + " is incomplete");
+                }
+                if (rows != MultisetEnumerator.countValidNumbers(n, base) || footerOffset < HEADER_SIZE
+                        || footerOffset > size - TRAILER_SIZE || size - TRAILER_SIZE - footerOffset > Integer.MAX_VALUE) {
+                    throw new IOException(file + " has a malformed trailer");
+                }
+                ByteBuffer footer = readFully(channel, footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+                CRC32 crc = new CRC32();
+                crc.update(footer.duplicate());
+                if (crc.getValue() != checksum) {
+                    throw new IOException(file + " has a corrupt footer");
+                }
+
+                int attractorCount = footer.getInt();
+                List<long[]> attractors = new ArrayList<>(attractorCount);
+                for (int a = 0; a < attractorCount; a++) {
+                    long[] elements = new long[footer.getInt()];
+                    for (int i = 0; i < elements.length; i++) {
+                        elements[i] = footer.getLong();
+                    }
+                    attractors.add(elements);
+                }
+                int blockCount = footer.getInt();
+                if (blockCount != (rows + rowsPerBlock - 1) / rowsPerBlock) {
+                    throw new IOException(file + " has " + blockCount + " blocks for " + rows + " rows");
+                }
+                long[] blockOffsets = new long[blockCount];
+                int[] blockChecksums = new int[blockCount];
+                for (int b = 0; b < blockCount; b++) {
+                    blockOffsets[b] = footer.getLong();
+                    blockChecksums[b] = footer.getInt();
+                    long previous = b == 0 ? HEADER_SIZE : blockOffsets[b - 1];
+                    if (blockOffsets[b] < previous || blockOffsets[b] > footerOffset) {
+                        throw new IOException(file + " has a malformed block index");
+                    }
+                }
+                return new Reader(channel, n, base, rowsPerBlock, rows, footerOffset, attractors, blockOffsets,
+                        blockChecksums);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                if (e instanceof IOException) {
+                    throw e;
+                }
+                // Negative lengths and buffer underflows from a footer whose checksum matched by chance
+                throw new IOException(file + " is malformed: " + e, e);
+            }
+        }
+
+        public int getN() {
+            return n;
+        }
+
+        public int getBase() {
+            return base;
+        }
+
+        // One row per valid number
+        public long getRowCount() {
+            return rows;
+        }
+
+        public int getAttractorCount() {
+            return attractors.size();
+        }
+
+        public int getBlockCount() {
+            return blockOffsets.length;
+        }
+
+        /**
+         * @param attractorId An attractor id, from 0 to getAttractorCount() - 1.
+         * @return The attractor's elements in cycle order, starting from the smallest; a fixed point has one.
+         */
+        public List<int[]> getAttractor(int attractorId) {
+            long[] elements = attractors.get(attractorId);
+            List<int[]> digits = new ArrayList<>(elements.length);
+            for (long element : elements) {
+                digits.add(o7_16_2025.longToPaddedDigits(element, n, base));
+            }
+            return digits;
+        }
+
+        /**
+         * Returns the row of a number, its position in the order of o7_16_2025.forEachNumber.
+         * @param value The number's packed value (see o7_16_2025.digitsToLong).
+         * @return The row.
+         * @throws IllegalArgumentException if the value is not a valid n-digit number.
+         */
+        public long rowOf(long value) {
+            if (value < low || value / base >= low || value % unit == 0) {
+                throw new IllegalArgumentException(value + " is not a valid " + n + "-digit number in Base " + base);
+            }
+            // Minus the repdigits below the value
+            return value - low - Math.min(base - 1, value / unit);
+        }
+
+        /**
+         * @param value The number's packed value.
+         * @return The id of the attractor the number ends in; see getAttractor().
+         * @throws IOException if the number's block cannot be read or is corrupt.
+         */
+        public int attractorIdOf(long value) throws IOException {
+            long row = rowOf(value);
+            load(row);
+            return attractorIds[(int) (row % rowsPerBlock)];
+        }
+
+        /**
+         * @param value The number's packed value.
+         * @return The iterations until the number reaches its attractor, as in KaprekarResult.getIterations().
+         * @throws IOException if the number's block cannot be read or is corrupt.
+         */
+        public int iterationsOf(long value) throws IOException {
+            long row = rowOf(value);
+            load(row);
+            return iterations[(int) (row % rowsPerBlock)];
+        }
+
+        // Decodes the block that holds a row, unless it is the cached one
+        private void load(long row) throws IOException {
+            int block = (int) (row / rowsPerBlock);
+            if (block == cachedBlock) {
+                return;
+            }
+            long end = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : footerOffset;
+            int length = (int) (end - blockOffsets[block]);
+            if (blockBytes.capacity() < length) {
+                blockBytes = ByteBuffer.allocate(length);
+            }
+            blockBytes.clear().limit(length);
+            readFully(channel, blockOffsets[block], blockBytes);
+            CRC32 crc = new CRC32();
+            crc.update(blockBytes.duplicate());
+            if ((int) crc.getValue() != blockChecksums[block]) {
+                throw new IOException("Block " + block + " is corrupt");
+            }
+            int count = (int) Math.min(rowsPerBlock, rows - (long) block * rowsPerBlock);
+            // Forget the cache first, so a malformed block is not taken for the cached one
+            cachedBlock = -1;
+            try {
+                decodeColumn(blockBytes, attractorIds, count);
+                decodeColumn(blockBytes, iterations, count);
+            } catch (RuntimeException e) {
+                throw new IOException("Block " + block + " is malformed: " + e, e);
+            }
+            for (int i = 0; i < count; i++) {
+                if (attractorIds[i] >= attractors.size()) {
+                    throw new IOException("Block " + block + " refers to attractor " + attractorIds[i]);
+                }
+            }
+            cachedBlock = block;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long offset, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        readFully(channel, offset, bytes);
+        return bytes;
+    }
+
+    private static void readFully(FileChannel channel, long offset, ByteBuffer bytes) throws IOException {
+        long position = offset;
+        while (bytes.hasRemaining()) {
+            int read = channel.read(bytes, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file at offset " + position);
+            }
+            position += read;
+        }
+        bytes.flip();
+    }
+} // End of class ColumnarExport
@@ -0,0 +1,227 @@
+package pack;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+// The human-readable report of a sweep. It is one consumer of KaprekarAggregate among others
+// (ResultStore, checkpoints, in-process callers of KaprekarAnalyzer), and the only place where
+// results are turned into text.
+public final class ConsoleReport implements Consumer<KaprekarAggregate> {
+    private final PrintStream out;
+
+    /**
+     * @param out Where to print, usually System.out.
+     */
+    public ConsoleReport(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Prints the lines that introduce a sweep, before any number is analyzed.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether the sweep walks digit multisets.
+     */
+    public void printHeader(int n, int base, boolean useMultisetEnumeration) {
+        out.println("Starting Kaprekar's Routine Analysis for " + n + "-digit numbers in Base " + base + ".");
+        out.println("Total valid numbers to analyze: " + MultisetEnumerator.countValidNumbers(n, base));
+        if (useMultisetEnumeration) {
+            out.println("Distinct digit multisets to analyze: " + MultisetEnumerator.countMultisets(n, base));
+        }
+        out.println("--------------------------------------------------");
+    }
+
+    /**
+     * Prints the aggregated analysis results.
+     * @param aggregate The results of a sweep.
+     */
+    @Override
+    public void accept(KaprekarAggregate aggregate) {
+        int n = aggregate.getN();
+        int base = aggregate.getBase();
+        long totalCheckedNumbers = aggregate.getTotalCheckedNumbers();
+        List<int[]> uniqueFinalNumbers = aggregate.getUniqueFinalNumbers();
+        List<UniqueCycleRepresenter> uniqueCycles = aggregate.getUniqueCycles();
+
+        out.println("\n--- Aggregated Analysis Results for N=" + n + " in Base " + base + " ---");
+
+        if (aggregate.isEmpty()) {
+            out.println("No valid numbers generated for N=" + n + " in Base " + base + ".");
+            return;
+        }
+
+        // Determine if all results lead to a single final number AND no cycles
+        boolean allConvergeToSingleFinal = (uniqueFinalNumbers.size() == 1 && uniqueCycles.isEmpty());
+
+        if (allConvergeToSingleFinal) {
+            out.println("ALL numbers of " + n + " digits in Base " + base + " converge to the single final number: " +
+                               o7_16_2025.arrayToStringWithBaseDigits(uniqueFinalNumbers.get(0), base));
+            out.println("The most number of iterations it took to arrive at that number was: " + aggregate.getMaxIterationsToFinal());
+        } else {
+            out.println("NOT all numbers of " + n + " digits in Base " + base + " converge to the same final number, or some entered cycles.");
+
+            out.println("\n--- Unique Final Numbers Found ---");
+            if (uniqueFinalNumbers.isEmpty()) {
+                out.println("No numbers converged to a final fixed point for N=" + n + " in Base " + base + ".");
+            } else {
+                long[] finalNumberCounts = aggregate.getFinalNumberCounts();
+                for (int i = 0; i < uniqueFinalNumbers.size(); i++) {
+                    String finalNumStr = o7_16_2025.arrayToStringWithBaseDigits(uniqueFinalNumbers.get(i), base);
+                    if (totalCheckedNumbers > 0) {
+                        double percent = (double) finalNumberCounts[i] / totalCheckedNumbers * 100;
+                        out.printf("Final Number: %s (Reached by %.2f%% of checked numbers)%n", finalNumStr, percent);
+                    } else {
+                        out.println("Final Number: " + finalNumStr + " (Reached by " + finalNumberCounts[i] + " numbers)");
+                    }
+                }
+                out.println("Maximum iterations to reach any unique final number: " + aggregate.getMaxIterationsToFinal());
+            }
+
+            out.println("\n--- Unique Cycles Found ---");
+            if (uniqueCycles.isEmpty()) {
+                out.println("No numbers converged to a cycle for N=" + n + " in Base " + base + ".");
+            } else {
+                int cycleCounter = 1;
+                for (UniqueCycleRepresenter cycleRepr : uniqueCycles) {
+                    if (totalCheckedNumbers > 0) {
+                        double percent = (double) cycleRepr.getCount() / totalCheckedNumbers * 100;
+                        out.printf("Unique Cycle %d: %s (Reached by %.2f%% of checked numbers)%n",
+                                          cycleCounter, cycleRepr.toString(), percent);
+                    } else {
+                        out.println("Unique Cycle " + cycleCounter + ": " + cycleRepr.toString() +
+                                           " (Reached by " + cycleRepr.getCount() + " numbers)");
+                    }
+                    cycleCounter++;
+                }
+            }
+
+            if (totalCheckedNumbers > 0) {
+                double percentToCycles = (double) aggregate.getTotalNumbersConvergedToCycles() / totalCheckedNumbers * 100;
+                out.printf("\nPercentage of ALL checked numbers that converged to ANY cycle: %.2f%%%n", percentToCycles);
+            } else {
+                out.println("\nCannot calculate percentage to cycles, as no valid numbers were analyzed.");
+            }
+        }
+        out.println("\n--- Analysis Complete ---");
+    }
+
+    /**
+     * Prints the outcome of a single number's sequence.
+     * @param result The number's result, e.g. from KaprekarAnalyzer.analyzeNumber().
+     * @param base The base of the number system.
+     */
+    public void printResult(KaprekarResult result, int base) {
+        int n = result.getInitialNumber().length;
+        out.println("--- Kaprekar's Routine for one " + n + "-digit number in Base " + base + " ---");
+        out.println("Initial number: " + o7_16_2025.arrayToStringWithBaseDigits(result.getInitialNumber(), base));
+        if (result.getType() == ResultType.FINAL) {
+            out.println("Type: FINAL, reached after " + result.getIterations() + " iterations");
+            out.println("Final Number: " + o7_16_2025.arrayToStringWithBaseDigits(result.getFinalNumber(), base));
+        } else {
+            out.println("Type: CYCLE of length " + result.getCycleElements().size() + ", entered after "
+                    + result.getIterations() + " iterations");
+            for (int[] element : result.getCycleElements()) {
+                out.println("  " + o7_16_2025.arrayToStringWithBaseDigits(element, base));
+            }
+        }
+        out.println();
+    }
+
+    /**
+     * Prints the shares estimated by a sampled sweep, each with its 95% confidence interval.
+     * @param estimate The outcome of SampledSweep.run().
+     * @param precision The target half-width that was asked for, as a fraction, or 0 for none.
+     */
+    public void printEstimate(SampledSweep.Estimate estimate, double precision) {
+        KaprekarAggregate aggregate = estimate.getAggregate();
+        int n = aggregate.getN();
+        int base = aggregate.getBase();
+        long samples = estimate.getSamples();
+        out.println("Starting sampled Kaprekar's Routine Analysis for " + n + "-digit numbers in Base " + base + ".");
+        out.println("Seed: " + estimate.getSeed() + (precision > 0
+                ? String.format(Locale.ROOT, ", target precision: +/-%.2f percentage points at 95%% confidence", precision * 100)
+                : ""));
+        out.println("--------------------------------------------------");
+        out.println("\n--- Sampled Analysis Results for N=" + n + " in Base " + base + " ---");
+        switch (estimate.getStopReason()) {
+            case PRECISION:
+                out.println("Sampled " + samples + " valid numbers; the target precision was reached.");
+                break;
+            case SAMPLE_LIMIT:
+                out.println("Sampled " + samples + " valid numbers; the sample limit was reached.");
+                break;
+            default:
+                out.println("Sampled " + samples + " valid numbers before the time budget ran out.");
+                break;
+        }
+        if (samples == 0) {
+            out.println("\n--- Analysis Complete ---");
+            return;
+        }
+
+        out.println("\n--- Unique Final Numbers Found ---");
+        List<int[]> uniqueFinalNumbers = aggregate.getUniqueFinalNumbers();
+        if (uniqueFinalNumbers.isEmpty()) {
+            out.println("No sampled number converged to a final fixed point.");
+        } else {
+            long[] finalNumberCounts = aggregate.getFinalNumberCounts();
+            for (int i = 0; i < uniqueFinalNumbers.size(); i++) {
+                out.println("Final Number: " + o7_16_2025.arrayToStringWithBaseDigits(uniqueFinalNumbers.get(i), base)
+                        + " (Reached by " + share(estimate, finalNumberCounts[i]) + ")");
+            }
+            out.println("Maximum iterations to reach any unique final number in the sample: "
+                    + aggregate.getMaxIterationsToFinal());
+        }
+
+        out.println("\n--- Unique Cycles Found ---");
+        List<UniqueCycleRepresenter> uniqueCycles = aggregate.getUniqueCycles();
+        if (uniqueCycles.isEmpty()) {
+            out.println("No sampled number converged to a cycle.");
+        } else {
+            int cycleCounter = 1;
+            for (UniqueCycleRepresenter cycleRepr : uniqueCycles) {
+                out.println("Unique Cycle " + cycleCounter + ": " + cycleRepr.toString()
+                        + " (Reached by " + share(estimate, cycleRepr.getCount()) + ")");
+                cycleCounter++;
+            }
+        }
+        out.println("\nPercentage of ALL numbers that converge to ANY cycle: "
+                + share(estimate, aggregate.getTotalNumbersConvergedToCycles()));
+        out.println("\n--- Analysis Complete ---");
+    }
+
+    // "12.34% of numbers, 95% CI 12.00% .. 12.68%"
+    private static String share(SampledSweep.Estimate estimate, long count) {
+        double[] interval = estimate.interval(count);
+        return String.format(Locale.ROOT, "%.2f%% of numbers, 95%% CI %.2f%% .. %.2f%%",
+                (double) count / estimate.getSamples() * 100, interval[0] * 100, interval[1] * 100);
+    }
+
+    /**
+     * Prints the size and depth profile of attractor basins, largest basin first.
+     * @param base The base of the number system.
+     * @param basins The basins, e.g. from PreimageIndex.basins().
+     */
+    public void printBasins(int base, List<PreimageIndex.Basin> basins) {
+        List<PreimageIndex.Basin> bySize = new ArrayList<>(basins);
+        // Stable, so equal sizes keep the report's order
+        bySize.sort(Comparator.comparingLong(PreimageIndex.Basin::getSize).reversed());
+        out.println("\n--- Basins ---");
+        for (PreimageIndex.Basin basin : bySize) {
+            StringBuilder attractor = new StringBuilder();
+            for (int[] element : basin.getAttractor()) {
+                if (attractor.length() > 0) {
+                    attractor.append(" -> ");
+                }
+                attractor.append(o7_16_2025.arrayToStringWithBaseDigits(element, base));
+            }
+            out.println(attractor + ": " + basin.getSize() + " numbers, depth profile "
+                    + Arrays.toString(basin.getDepthHistogram()));
+        }
+    }
+} // End of class ConsoleReport
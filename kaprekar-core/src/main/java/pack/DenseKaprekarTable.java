@@ -0,0 +1,327 @@
+package pack;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// Table of the Kaprekar outcome of every packed value 0 .. base^n - 1 of one (n, base)
+// configuration, for configurations small enough to enumerate in full. It is built in passes:
+//   1. the one-step successor of every value, by BatchKaprekarKernel;
+//   2. every value's attractor and depth, in one linear pass that walks unresolved values until it
+//      meets a resolved one (or closes a new cycle) and writes the outcome back along the walk;
+//   3. queries: the outcome of one number, or the aggregate over every valid number.
+// The per-value arrays live in direct buffers (6 bytes per value), so resident tables add nothing
+// to the Java heap or to GC work. A built table is immutable and safe to share between threads;
+// forConfiguration() keeps the most recently used ones resident up to a memory budget.
+class DenseKaprekarTable {
+    // Largest base^n a table is built for; about 800 MB of direct memory at the limit
+    static final long MAX_VALUES = 1L << 27;
+    // Direct memory the resident tables may use together
+    private static final long RESIDENT_BYTES = Long.getLong("kaprekar.denseTable.residentBytes", 1L << 30);
+
+    // Values stepped together in pass 1; a power of two, so deadline checks stay on 64K boundaries
+    private static final int BLOCK = 1024;
+
+    private static final short UNVISITED = -1;
+    private static final short IN_PROGRESS = -2;
+
+    // Resident tables by (n, base), least recently used first
+    private static final LinkedHashMap<Long, DenseKaprekarTable> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private static long residentBytes = 0;
+
+    private final int n;
+    private final int base;
+    private final int size;
+
+    // Pass 1 stores each value's successor here; pass 2 replaces it with the index (into
+    // attractorElements) of the first attractor element the value's trajectory reaches.
+    private final IntBuffer entries;
+    // Steps from each value to its entry element
+    private final ShortBuffer depths;
+
+    // Every attractor element, cycle by cycle in cycle order; fixed points are cycles of length 1
+    private long[] attractorElements = new long[16];
+    // For each attractor element: the index of its attractor's first element, and the attractor's length
+    private int[] attractorStarts = new int[16];
+    private int[] attractorLengths = new int[16];
+    private int elementCount = 0;
+
+    private DenseKaprekarTable(int n, int base) {
+        this.n = n;
+        this.base = base;
+        this.size = (int) valueCount(n, base);
+        this.entries = ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+        this.depths = ByteBuffer.allocateDirect(size * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+    }
+
+    /**
+     * Checks whether a configuration is small enough for a table.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return true if base^n is at most MAX_VALUES.
+     */
+    public static boolean fits(int n, int base) {
+        return valueCount(n, base) <= MAX_VALUES;
+    }
+
+    // base^n, or Long.MAX_VALUE if it exceeds MAX_VALUES
+    private static long valueCount(int n, int base) {
+        long count = 1;
+        for (int i = 0; i < n; i++) {
+            count *= base;
+            if (count > MAX_VALUES) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the resident table of a configuration, building it if necessary. Building evicts
+     * the least recently used tables once the resident ones would exceed the memory budget.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param deadlineNanos The System.nanoTime() after which building stops, or Long.MAX_VALUE for none.
+     * @return The table.
+     * @throws IllegalArgumentException if the configuration does not fit a table.
+     * @throws SweepTimeoutException if the deadline passed while building.
+     */
+    public static DenseKaprekarTable forConfiguration(int n, int base, long deadlineNanos) {
+        Long key = ((long) n << 32) | base;
+        synchronized (resident) {
+            DenseKaprekarTable table = resident.get(key);
+            if (table != null) {
+                return table;
+            }
+        }
+        // Built outside the lock; two threads asking for the same new table may both build it
+        DenseKaprekarTable table = build(n, base, deadlineNanos);
+        synchronized (resident) {
+            DenseKaprekarTable existing = resident.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            Iterator<DenseKaprekarTable> eldest = resident.values().iterator();
+            while (eldest.hasNext() && residentBytes + table.memoryBytes() > RESIDENT_BYTES) {
+                residentBytes -= eldest.next().memoryBytes();
+                eldest.remove();
+            }
+            resident.put(key, table);
+            residentBytes += table.memoryBytes();
+        }
+        return table;
+    }
+
+    /**
+     * Builds a table without caching it.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param deadlineNanos The System.nanoTime() after which building stops, or Long.MAX_VALUE for none.
+     * @return The table.
+     * @throws IllegalArgumentException if the configuration does not fit a table.
+     * @throws SweepTimeoutException if the deadline passed while building.
+     */
+    static DenseKaprekarTable build(int n, int base, long deadlineNanos) {
+        if (!fits(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " are too many for a dense table");
+        }
+        long start = System.nanoTime();
+        DenseKaprekarTable table = new DenseKaprekarTable(n, base);
+        table.computeSuccessors(deadlineNanos);
+        table.resolveAll(deadlineNanos);
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addPhase(SweepMetrics.Phase.TABLE_BUILD, System.nanoTime() - start);
+        }
+        return table;
+    }
+
+    /**
+     * Returns the direct memory the table occupies.
+     * @return The size of the per-value buffers in bytes.
+     */
+    public long memoryBytes() {
+        return 6L * size;
+    }
+
+    // Pass 1, a block of consecutive values at a time
+    private void computeSuccessors(long deadlineNanos) {
+        BatchKaprekarKernel kernel = BatchKaprekarKernel.create(n, base, BLOCK);
+        int[] successors = new int[BLOCK];
+        for (int first = 0; first < size; first += BLOCK) {
+            if ((first & 0xFFFF) == 0) {
+                checkDeadline(deadlineNanos);
+            }
+            int count = Math.min(BLOCK, size - first);
+            kernel.loadRange(first, count);
+            kernel.step(count);
+            kernel.storePacked(successors, 0, count);
+            entries.put(first, successors, 0, count);
+            for (int value = first; value < first + count; value++) {
+                depths.put(value, UNVISITED);
+            }
+        }
+    }
+
+    // Pass 2. While a walk is in progress its values are marked IN_PROGRESS and `path` holds them in
+    // walk order; entries still hold their successors until the walk is written back.
+    private void resolveAll(long deadlineNanos) {
+        int[] path = new int[64];
+        for (int start = 0; start < size; start++) {
+            if ((start & 0xFFFF) == 0) {
+                checkDeadline(deadlineNanos);
+            }
+            if (depths.get(start) != UNVISITED) {
+                continue;
+            }
+
+            int pathLength = 0;
+            int current = start;
+            while (depths.get(current) == UNVISITED) {
+                depths.put(current, IN_PROGRESS);
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, pathLength * 2);
+                }
+                path[pathLength++] = current;
+                current = entries.get(current);
+            }
+
+            int last = pathLength - 1;
+            if (depths.get(current) == IN_PROGRESS) {
+                // The walk closed a new cycle, which starts at `current`'s path position
+                int cycleStart = last;
+                while (path[cycleStart] != current) {
+                    cycleStart--;
+                }
+                int firstElement = elementCount;
+                for (int i = cycleStart; i <= last; i++) {
+                    int element = addAttractorElement(path[i], firstElement, pathLength - cycleStart);
+                    entries.put(path[i], element);
+                    depths.put(path[i], (short) 0);
+                }
+                last = cycleStart - 1;
+                if (last >= 0) {
+                    current = path[cycleStart];
+                }
+            }
+            // Every remaining path value inherits the outcome of the value it steps to
+            for (int i = last; i >= 0; i--) {
+                int depth = depths.get(current) + 1;
+                if (depth > Short.MAX_VALUE) {
+                    throw new IllegalStateException("Trajectory depth " + depth + " does not fit the table");
+                }
+                entries.put(path[i], entries.get(current));
+                depths.put(path[i], (short) depth);
+                current = path[i];
+            }
+        }
+    }
+
+    private int addAttractorElement(long value, int firstElement, int length) {
+        if (elementCount == attractorElements.length) {
+            int capacity = elementCount * 2;
+            attractorElements = Arrays.copyOf(attractorElements, capacity);
+            attractorStarts = Arrays.copyOf(attractorStarts, capacity);
+            attractorLengths = Arrays.copyOf(attractorLengths, capacity);
+        }
+        attractorElements[elementCount] = value;
+        attractorStarts[elementCount] = firstElement;
+        attractorLengths[elementCount] = length;
+        return elementCount++;
+    }
+
+    private static void checkDeadline(long deadlineNanos) {
+        if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+            throw new SweepTimeoutException();
+        }
+    }
+
+    /**
+     * Looks up the outcome of one number. Produces the same result as
+     * `o7_16_2025.analyzeKaprekarSequence`.
+     * @param initialDigits The starting number's digits as an array.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    public KaprekarResult analyze(int[] initialDigits) {
+        int value = (int) o7_16_2025.digitsToLong(initialDigits, base);
+        return buildResult(initialDigits, entries.get(value), depths.get(value));
+    }
+
+    private KaprekarResult buildResult(int[] initialDigits, int entry, int iterations) {
+        int first = attractorStarts[entry];
+        int length = attractorLengths[entry];
+        if (length == 1) {
+            return new KaprekarResult(initialDigits, o7_16_2025.longToPaddedDigits(attractorElements[entry], n, base),
+                    iterations, base);
+        }
+
+        // The cycle is listed starting from the element the trajectory reaches first
+        List<int[]> cycleElements = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int element = first + (entry - first + i) % length;
+            cycleElements.add(o7_16_2025.longToPaddedDigits(attractorElements[element], n, base));
+        }
+        return new KaprekarResult(initialDigits, cycleElements, iterations, base);
+    }
+
+    /**
+     * Aggregates every valid number straight from the table. Valid numbers are counted by entry
+     * element and depth in ascending order of value, and each distinct outcome is then added once
+     * with its count, in order of first appearance, so the aggregate (including which rotation of
+     * each cycle it displays) is the same as that of the sequential sweep.
+     * @return The aggregate over every valid n-digit number.
+     */
+    public KaprekarAggregate aggregate() {
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        if (n < 2) {
+            // A single digit is always a repdigit
+            return aggregate;
+        }
+
+        // countsByEntry[entry][depth], plus the first value seen with each outcome
+        long[][] countsByEntry = new long[elementCount][];
+        int[][] firstValues = new int[elementCount][];
+        int[] entryOrder = new int[elementCount];
+        int entriesSeen = 0;
+
+        int repunit = (size - 1) / (base - 1); // 11...1 in this base; repdigits are its multiples
+        for (int value = size / base; value < size; value++) {
+            if (value % repunit == 0) {
+                continue;
+            }
+            int entry = entries.get(value);
+            int depth = depths.get(value);
+            long[] counts = countsByEntry[entry];
+            if (counts == null) {
+                counts = countsByEntry[entry] = new long[depth + 1];
+                firstValues[entry] = new int[depth + 1];
+                entryOrder[entriesSeen++] = entry;
+            } else if (depth >= counts.length) {
+                counts = countsByEntry[entry] = Arrays.copyOf(counts, depth + 1);
+                firstValues[entry] = Arrays.copyOf(firstValues[entry], depth + 1);
+            }
+            if (counts[depth]++ == 0) {
+                firstValues[entry][depth] = value;
+            }
+        }
+
+        for (int i = 0; i < entriesSeen; i++) {
+            int entry = entryOrder[i];
+            long[] counts = countsByEntry[entry];
+            // The lowest depth is not necessarily where the entry was first seen, but every depth
+            // adds the same attractor through the same entry element
+            for (int depth = 0; depth < counts.length; depth++) {
+                if (counts[depth] != 0) {
+                    int[] initialDigits = o7_16_2025.longToPaddedDigits(firstValues[entry][depth], n, base);
+                    aggregate.add(buildResult(initialDigits, entry, depth), counts[depth]);
+                }
+            }
+        }
+        return aggregate;
+    }
+} // End of class DenseKaprekarTable
@@ -0,0 +1,119 @@
+package pack;
+
+// Enumerates the valid n-digit numbers of a base in reflected mixed-radix Gray code order, so
+// that neighbouring numbers differ in exactly one digit, by exactly one.
+//
+// Along with the digits it keeps the digit histogram and the packed values of the digits in
+// decreasing and in increasing order, and updates all of them in O(1) per number. When a digit d
+// becomes d + 1, the first d of the decreasing order and the last d of the increasing order turn
+// into d + 1 and both orders stay sorted, so each value changes by one power of the base; which
+// power follows from the count of digits <= d, and that cumulative count is the only one the change
+// moves. Decreasing to d - 1 is the mirror image. The first successor of every number is then a
+// subtraction, with no sorting and no division.
+//
+// The order is not that of o7_16_2025.forEachNumber. Aggregates do not depend on it, since each
+// cycle is shown in the rotation reached from its smallest starting number.
+// Positions advance by Knuth's loopless algorithm (TAOCP 7.2.1.1, Algorithm H): the least
+// significant digit moves fastest and the leading digit runs through 1 .. base - 1.
+class GrayCodeEnumerator {
+
+    // Receives one number at a time.
+    interface NumberVisitor {
+        /**
+         * @param digits The number's digits, most significant first. The array is reused between
+         *               calls, so clone it before keeping it.
+         * @param counts counts[d] is how often digit d occurs; reused between calls like `digits`.
+         * @param number The packed number (see o7_16_2025.digitsToLong).
+         * @param image The packed Kaprekar successor of the number.
+         */
+        void visit(int[] digits, int[] counts, long number, long image);
+    }
+
+    /**
+     * Visits every valid n-digit number (see `o7_16_2025.checkedNumber`) once.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param visitor The callback receiving each number.
+     * @throws IllegalArgumentException if n-digit values in this base do not fit in a long.
+     */
+    static void forEachNumber(int n, int base, NumberVisitor visitor) {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " do not fit in a long");
+        }
+        if (n < 2) {
+            // A single digit is never valid
+            return;
+        }
+        long[] powers = new long[n];
+        powers[0] = 1;
+        for (int e = 1; e < n; e++) {
+            powers[e] = powers[e - 1] * base;
+        }
+
+        // Start at 10...0
+        int[] digits = new int[n];
+        digits[0] = 1;
+        int[] counts = new int[base];
+        counts[0] = n - 1;
+        counts[1] = 1;
+        // cumulative[d] is the number of digits <= d
+        int[] cumulative = new int[base];
+        for (int d = 0; d < base; d++) {
+            cumulative[d] = d == 0 ? n - 1 : n;
+        }
+        long number = powers[n - 1];
+        long decreasing = powers[n - 1];
+        long increasing = 1;
+
+        // Gray code position j is digit n - 1 - j; the leading digit only moves in bases above 2
+        int positions = base > 2 ? n : n - 1;
+        int[] low = new int[positions];
+        int[] high = new int[positions];
+        int[] direction = new int[positions];
+        int[] focus = new int[positions + 1];
+        for (int j = 0; j < positions; j++) {
+            low[j] = j == n - 1 ? 1 : 0;
+            high[j] = base - 1;
+            direction[j] = 1;
+            focus[j] = j;
+        }
+        focus[positions] = positions;
+
+        int changed = 1;
+        while (true) {
+            if (counts[changed] != n) {
+                visitor.visit(digits, counts, number, decreasing - increasing);
+            }
+
+            int j = focus[0];
+            focus[0] = 0;
+            if (j == positions) {
+                return;
+            }
+            int position = n - 1 - j;
+            int d = digits[position];
+            if (direction[j] > 0) {
+                number += powers[j];
+                decreasing += powers[cumulative[d] - 1];
+                increasing += powers[n - cumulative[d]];
+                cumulative[d]--;
+                changed = d + 1;
+            } else {
+                number -= powers[j];
+                decreasing -= powers[cumulative[d - 1]];
+                increasing -= powers[n - 1 - cumulative[d - 1]];
+                cumulative[d - 1]++;
+                changed = d - 1;
+            }
+            counts[d]--;
+            counts[changed]++;
+            digits[position] = changed;
+
+            if (changed == low[j] || changed == high[j]) {
+                direction[j] = -direction[j];
+                focus[j] = focus[j + 1];
+                focus[j + 1] = j + 1;
+            }
+        }
+    }
+} // End of class GrayCodeEnumerator
@@ -0,0 +1,118 @@
+package pack;
+
+import java.util.Arrays;
+
+// Sequential sweep over every valid number that takes each number's first successor from
+// GrayCodeEnumerator instead of sorting its digits.
+//
+// Apart from the fixed points and cycle elements themselves, every number with the same image has
+// the same outcome, one step further from its attractor than the image. Numbers are therefore
+// grouped by image in a primitive table, each image is resolved once in a SuccessorGraph, and each
+// group is added to the aggregate once with its size as the weight; attractor elements are added
+// on their own. Every group is added with its smallest number as the starting number, so the
+// smallest number to reach each cycle is the same as in the plain sweep, and so is the cycle's
+// example rotation: the aggregate is identical to runSweep(n, base, false, SUCCESSOR_GRAPH, 1).
+class GrayCodeSweep {
+    private final int n;
+    private final int base;
+    private final long deadlineNanos;
+    private final SuccessorGraph graph;
+
+    // Image -> group index
+    private final LongIntHashMap groupIndex = new LongIntHashMap(1 << 12, -1);
+    private long[] smallestNumbers = new long[1 << 12];
+    private long[] groupSizes = new long[1 << 12];
+    private int groupCount = 0;
+
+    // Fixed points and cycle elements, each its own entry
+    private long[] attractorNumbers = new long[16];
+    private int attractorNumberCount = 0;
+
+    private int visited = 0;
+
+    private GrayCodeSweep(int n, int base, long deadlineNanos) {
+        this.n = n;
+        this.base = base;
+        this.deadlineNanos = deadlineNanos;
+        this.graph = new SuccessorGraph(n, base);
+    }
+
+    /**
+     * Sweeps every valid number of a configuration.
+     * @param n The number of digits.
+     * @param base The base of the number system; n-digit values must fit in a long.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number.
+     * @throws SweepTimeoutException if the deadline passed before the sweep finished.
+     */
+    static KaprekarAggregate run(int n, int base, long deadlineNanos) {
+        GrayCodeSweep sweep = new GrayCodeSweep(n, base, deadlineNanos);
+        GrayCodeEnumerator.forEachNumber(n, base, (digits, counts, number, image) -> sweep.add(number, image));
+        return sweep.aggregate();
+    }
+
+    private void add(long number, long image) {
+        if ((++visited & 0x3FF) == 0 && deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+            throw new SweepTimeoutException();
+        }
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelStep();
+        }
+
+        int group = groupIndex.get(image);
+        if (group < 0) {
+            // Resolving the image also discovers its attractor, which the check below needs
+            graph.resolve(image);
+        }
+        if (graph.isAttractorElement(number)) {
+            if (attractorNumberCount == attractorNumbers.length) {
+                attractorNumbers = Arrays.copyOf(attractorNumbers, attractorNumberCount * 2);
+            }
+            attractorNumbers[attractorNumberCount++] = number;
+            return;
+        }
+        if (group < 0) {
+            group = groupCount++;
+            if (group == groupSizes.length) {
+                smallestNumbers = Arrays.copyOf(smallestNumbers, group * 2);
+                groupSizes = Arrays.copyOf(groupSizes, group * 2);
+            }
+            groupIndex.put(image, group);
+            smallestNumbers[group] = number;
+        } else if (number < smallestNumbers[group]) {
+            smallestNumbers[group] = number;
+        }
+        groupSizes[group]++;
+    }
+
+    private KaprekarAggregate aggregate() {
+        // Entry keys are numbers, added in the order of forEachNumber; group g is encoded as g and
+        // the attractor number a as -(a + 1)
+        long[] keys = new long[groupCount + attractorNumberCount];
+        LongIntHashMap entries = new LongIntHashMap(keys.length, 0);
+        for (int g = 0; g < groupCount; g++) {
+            keys[g] = smallestNumbers[g];
+            entries.put(smallestNumbers[g], g);
+        }
+        for (int a = 0; a < attractorNumberCount; a++) {
+            keys[groupCount + a] = attractorNumbers[a];
+            entries.put(attractorNumbers[a], -(a + 1));
+        }
+        Arrays.sort(keys);
+
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        for (long key : keys) {
+            int entry = entries.get(key);
+            long weight = entry >= 0 ? groupSizes[entry] : 1;
+            long start = System.nanoTime();
+            KaprekarResult result = graph.analyze(o7_16_2025.longToPaddedDigits(key, n, base));
+            if (SweepMetrics.ENABLED) {
+                // One analysis stands for every number of the group, each with the same trajectory length
+                SweepMetrics.addPhase(SweepMetrics.Phase.ANALYSIS, System.nanoTime() - start);
+                SweepMetrics.addTrajectories(result, weight);
+            }
+            aggregate.add(result, weight);
+        }
+        return aggregate;
+    }
+} // End of class GrayCodeSweep
@@ -0,0 +1,170 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Multiset sweep that groups digit multisets by their first successor and resolves each distinct
+// successor once.
+//
+// Every arrangement of a digit multiset steps to the same image, and images are far fewer than
+// multisets. The image is computed straight from the multiset's sorted digits (decreasing minus
+// increasing, position by position with a borrow, so no histogram and no division), multisets are
+// grouped by image in a primitive table, each image is resolved once in a SuccessorGraph, and each
+// group is added to the aggregate once with its total weight and its smallest arrangement as the
+// starting number. Multisets with an arrangement on an attractor are analyzed on their own, as in
+// o7_16_2025.analyzeMultiset, so the aggregate is that of a sweep over every number, example
+// rotations included.
+//
+// Nothing carries over from one configuration to the next: the step depends on both n and the
+// base, so every image is resolved again in each configuration. Whole configurations carry over
+// through ResultStore.
+class GroupedMultisetSweep {
+
+    /**
+     * Sweeps every valid number of a configuration through its digit multisets.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param engine Used when n-digit values do not fit a long and the sweep falls back to the plain multiset sweep.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number, identical to the plain sweep.
+     * @throws SweepTimeoutException if the deadline passed before the sweep finished.
+     */
+    static KaprekarAggregate sweep(int n, int base, AnalysisEngine engine, long deadlineNanos) {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            return o7_16_2025.runSweep(n, base, true, engine, 1, deadlineNanos);
+        }
+        Groups groups = new Groups(n, base, deadlineNanos);
+        MultisetEnumerator.forEachMultiset(n, base, groups::add);
+        return groups.aggregate();
+    }
+
+    // The multisets of one configuration grouped by image, plus the few that must be analyzed on
+    // their own
+    private static final class Groups {
+        private final int n;
+        private final int base;
+        private final long deadlineNanos;
+        private final SuccessorGraph graph;
+
+        // Image -> group index
+        private final LongIntHashMap groupIndex = new LongIntHashMap(1 << 12, -1);
+        // The smallest arrangement of any multiset in the group
+        private long[] smallestNumbers = new long[1 << 12];
+        private long[] groupWeights = new long[1 << 12];
+        private int groupCount = 0;
+
+        // Multisets analyzed on their own, since some arrangement of them is a fixed point or a
+        // cycle element (see o7_16_2025.analyzeMultiset)
+        private final List<int[]> singleDigits = new ArrayList<>();
+        private final List<Long> singleWeights = new ArrayList<>();
+
+        // Per attractor id: the descending arrangements of its elements
+        private long[][] attractorDescending = new long[16][];
+        private int attractorsSeen = 0;
+
+        private int visited = 0;
+
+        Groups(int n, int base, long deadlineNanos) {
+            this.n = n;
+            this.base = base;
+            this.deadlineNanos = deadlineNanos;
+            this.graph = new SuccessorGraph(n, base);
+        }
+
+        void add(int[] descendingDigits, long weight) {
+            if ((visited & 0x3FF) == 0 && deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+                throw new SweepTimeoutException();
+            }
+            visited++;
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addKernelStep();
+            }
+
+            long descending = 0;
+            long image = 0;
+            long power = 1;
+            int borrow = 0;
+            for (int p = n - 1; p >= 0; p--) {
+                descending += descendingDigits[p] * power;
+                int digit = descendingDigits[p] - descendingDigits[n - 1 - p] - borrow;
+                borrow = digit >>> 31;
+                image += (digit + (base & (digit >> 31))) * power;
+                if (p > 0) {
+                    power *= base;
+                }
+            }
+
+            // An arrangement on an attractor steps to another element of the same attractor, so
+            // resolving the image has discovered it
+            int attractorId = graph.attractorIdOf(graph.resolve(image));
+            for (long elementDescending : attractorDescending(attractorId)) {
+                if (elementDescending == descending) {
+                    singleDigits.add(descendingDigits.clone());
+                    singleWeights.add(weight);
+                    return;
+                }
+            }
+
+            // The smallest arrangement: the smallest nonzero digit, the zeros, then the rest in increasing order
+            int nonzero = n;
+            while (descendingDigits[nonzero - 1] == 0) {
+                nonzero--;
+            }
+            long smallest = descendingDigits[nonzero - 1];
+            for (int p = nonzero; p < n; p++) {
+                smallest *= base;
+            }
+            for (int p = nonzero - 2; p >= 0; p--) {
+                smallest = smallest * base + descendingDigits[p];
+            }
+
+            int group = groupIndex.get(image);
+            if (group >= 0) {
+                groupWeights[group] += weight;
+                smallestNumbers[group] = Math.min(smallestNumbers[group], smallest);
+                return;
+            }
+            group = groupCount++;
+            if (group == groupWeights.length) {
+                smallestNumbers = Arrays.copyOf(smallestNumbers, group * 2);
+                groupWeights = Arrays.copyOf(groupWeights, group * 2);
+            }
+            groupIndex.put(image, group);
+            smallestNumbers[group] = smallest;
+            groupWeights[group] = weight;
+        }
+
+        private long[] attractorDescending(int attractorId) {
+            while (attractorsSeen <= attractorId) {
+                if (attractorsSeen == attractorDescending.length) {
+                    attractorDescending = Arrays.copyOf(attractorDescending, attractorsSeen * 2);
+                }
+                long[] elements = graph.attractorElements(attractorsSeen);
+                long[] descending = new long[elements.length];
+                int[] sorted = new int[n];
+                for (int i = 0; i < elements.length; i++) {
+                    o7_16_2025.sortDigits(o7_16_2025.longToPaddedDigits(elements[i], n, base), base, sorted, null);
+                    descending[i] = o7_16_2025.digitsToLong(sorted, base);
+                }
+                attractorDescending[attractorsSeen++] = descending;
+            }
+            return attractorDescending[attractorId];
+        }
+
+        KaprekarAggregate aggregate() {
+            KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+            for (int group = 0; group < groupCount; group++) {
+                // No arrangement in the group is on an attractor, so all of them share the outcome
+                // of their common image, one step further
+                aggregate.add(graph.analyze(o7_16_2025.longToPaddedDigits(smallestNumbers[group], n, base)),
+                        groupWeights[group]);
+            }
+            for (int single = 0; single < singleDigits.size(); single++) {
+                o7_16_2025.analyzeMultiset(singleDigits.get(single), singleWeights.get(single), base,
+                        graph::analyze, aggregate);
+            }
+            return aggregate;
+        }
+    }
+} // End of class GroupedMultisetSweep
@@ -0,0 +1,389 @@
+package pack;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Running aggregate of Kaprekar results for one (n, base) configuration.
+// Results can be added one at a time or with a weight, so that a single analysis can stand in
+// for every digit array that shares its outcome (see MultisetEnumerator). Partial aggregates from
+// a parallel sweep are combined with merge(). The getters list final numbers and cycles in
+// ascending order so they do not depend on how the sweep was split; ConsoleReport turns them into
+// the text report. Each cycle is shown in the rotation reached from the smallest starting number
+// added for it, which is the first one a sequential sweep sees, so the aggregate does not depend
+// on the order in which results are added or merged either. writeTo() and readFrom() convert an
+// aggregate to and from the compact binary form kept by ResultStore. An aggregate is not
+// thread-safe; give each thread its own and merge them.
+public class KaprekarAggregate {
+    private final int n;
+    private final int base;
+
+    // Unique final numbers, indexed by the fixed point's value. Display strings are only built
+    // when the report is printed.
+    private final AttractorIndex finalIndex;
+    private final List<int[]> uniqueFinalNumbers = new ArrayList<>();
+    private long[] finalNumberCounts = new long[4];
+    private int maxIterationsToFinal = 0;
+
+    // Unique cycles, indexed by their smallest element
+    private final AttractorIndex cycleIndex;
+    private final List<UniqueCycleRepresenter> uniqueCycles = new ArrayList<>();
+    // Per cycle slot, the smallest starting number that reached it; its rotation is the example shown
+    private final List<int[]> cycleExampleStarts = new ArrayList<>();
+    private long totalNumbersConvergedToCycles = 0;
+
+    private long totalCheckedNumbers = 0;
+
+    // iterationHistogram[i] counts the numbers that reached their final number or cycle after i steps
+    private long[] iterationHistogram = new long[8];
+
+    public KaprekarAggregate(int n, int base) {
+        this.n = n;
+        this.base = base;
+        this.finalIndex = new AttractorIndex(n, base);
+        this.cycleIndex = new AttractorIndex(n, base);
+    }
+
+    public void add(KaprekarResult result) {
+        add(result, 1);
+    }
+
+    /**
+     * Adds a result that stands for `weight` initial numbers with the same outcome.
+     * @param result The analysis result to count.
+     * @param weight How many initial numbers share this result.
+     */
+    public void add(KaprekarResult result, long weight) {
+        long start = SweepMetrics.ENABLED ? System.nanoTime() : 0;
+        totalCheckedNumbers += weight;
+        addIterations(result.getIterations(), weight);
+
+        if (result.getType() == ResultType.FINAL) {
+            addFinalNumber(result.getFinalNumber(), weight);
+
+            if (result.getIterations() > maxIterationsToFinal) {
+                maxIterationsToFinal = result.getIterations();
+            }
+        } else { // ResultType.CYCLE
+            addCycle(result.getCycleElements(), weight, result.getInitialNumber());
+            totalNumbersConvergedToCycles += weight;
+        }
+
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addNumbersAggregated(weight);
+            SweepMetrics.addPhase(SweepMetrics.Phase.AGGREGATION, System.nanoTime() - start);
+        }
+    }
+
+    private void addIterations(int iterations, long weight) {
+        if (iterations >= iterationHistogram.length) {
+            iterationHistogram = Arrays.copyOf(iterationHistogram, Math.max(iterations + 1, iterationHistogram.length * 2));
+        }
+        iterationHistogram[iterations] += weight;
+    }
+
+    private void addFinalNumber(int[] finalNumber, long weight) {
+        int slot = finalIndex.getOrAdd(finalNumber);
+        if (slot == uniqueFinalNumbers.size()) {
+            uniqueFinalNumbers.add(finalNumber.clone());
+            if (slot == finalNumberCounts.length) {
+                finalNumberCounts = Arrays.copyOf(finalNumberCounts, slot * 2);
+            }
+        }
+        finalNumberCounts[slot] += weight;
+    }
+
+    /**
+     * Counts numbers that reached a cycle.
+     * @param cycleElements The cycle, starting from the element the numbers reach first.
+     * @param weight How many numbers.
+     * @param start The smallest of those numbers; decides which rotation is kept as the example.
+     */
+    private void addCycle(List<int[]> cycleElements, long weight, int[] start) {
+        int slot = cycleIndex.getOrAdd(UniqueCycleRepresenter.canonicalElement(cycleElements));
+        if (slot == uniqueCycles.size()) {
+            uniqueCycles.add(new UniqueCycleRepresenter(cycleElements, base));
+            cycleExampleStarts.add(start.clone());
+        } else if (Arrays.compare(start, cycleExampleStarts.get(slot)) < 0) {
+            // A smaller number reached the cycle: show the rotation it reaches instead
+            UniqueCycleRepresenter example = new UniqueCycleRepresenter(cycleElements, base);
+            example.addCount(uniqueCycles.get(slot).getCount());
+            uniqueCycles.set(slot, example);
+            cycleExampleStarts.set(slot, start.clone());
+        }
+        uniqueCycles.get(slot).addCount(weight);
+    }
+
+    /**
+     * Folds another aggregate of the same configuration into this one. Where both saw the same
+     * cycle, the example reached from the smaller starting number is kept, so partial aggregates
+     * can be merged in any order and still reproduce the sequential result.
+     * @param other The aggregate to add; it is not modified.
+     */
+    public void merge(KaprekarAggregate other) {
+        long start = SweepMetrics.ENABLED ? System.nanoTime() : 0;
+        totalCheckedNumbers += other.totalCheckedNumbers;
+        for (int i = 0; i < other.iterationHistogram.length; i++) {
+            if (other.iterationHistogram[i] != 0) {
+                addIterations(i, other.iterationHistogram[i]);
+            }
+        }
+
+        for (int i = 0; i < other.uniqueFinalNumbers.size(); i++) {
+            addFinalNumber(other.uniqueFinalNumbers.get(i), other.finalNumberCounts[i]);
+        }
+        maxIterationsToFinal = Math.max(maxIterationsToFinal, other.maxIterationsToFinal);
+
+        for (int slot = 0; slot < other.uniqueCycles.size(); slot++) {
+            UniqueCycleRepresenter cycleRepr = other.uniqueCycles.get(slot);
+            addCycle(cycleRepr.getExampleCycleElements(), cycleRepr.getCount(), other.cycleExampleStarts.get(slot));
+        }
+        totalNumbersConvergedToCycles += other.totalNumbersConvergedToCycles;
+
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addPhase(SweepMetrics.Phase.MERGE, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Checks whether two aggregates report the same: the totals, the iteration histogram, every
+     * final number and cycle with its count, and each cycle's example rotation.
+     * @param other The aggregate to compare with.
+     * @return Whether the two are indistinguishable through the getters.
+     */
+    public boolean sameResults(KaprekarAggregate other) {
+        if (n != other.n || base != other.base
+                || totalCheckedNumbers != other.totalCheckedNumbers
+                || maxIterationsToFinal != other.maxIterationsToFinal
+                || totalNumbersConvergedToCycles != other.totalNumbersConvergedToCycles
+                || !Arrays.equals(getIterationHistogram(), other.getIterationHistogram())
+                || !Arrays.equals(getFinalNumberCounts(), other.getFinalNumberCounts())
+                || !Arrays.deepEquals(getUniqueFinalNumbers().toArray(), other.getUniqueFinalNumbers().toArray())) {
+            return false;
+        }
+        List<UniqueCycleRepresenter> cycles = getUniqueCycles();
+        List<UniqueCycleRepresenter> otherCycles = other.getUniqueCycles();
+        if (cycles.size() != otherCycles.size()) {
+            return false;
+        }
+        for (int i = 0; i < cycles.size(); i++) {
+            if (cycles.get(i).getCount() != otherCycles.get(i).getCount()
+                    || !Arrays.deepEquals(cycles.get(i).getExampleCycleElements().toArray(),
+                            otherCycles.get(i).getExampleCycleElements().toArray())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isEmpty() {
+        return totalCheckedNumbers == 0;
+    }
+
+    public long getTotalCheckedNumbers() {
+        return totalCheckedNumbers;
+    }
+
+    public int getMaxIterationsToFinal() {
+        return maxIterationsToFinal;
+    }
+
+    public long getTotalNumbersConvergedToCycles() {
+        return totalNumbersConvergedToCycles;
+    }
+
+    /**
+     * Returns the unique final numbers (fixed points) in ascending order.
+     * @return Copies of the final numbers' digits; getFinalNumberCounts() lists their counts in the same order.
+     */
+    public List<int[]> getUniqueFinalNumbers() {
+        List<int[]> finalNumbers = new ArrayList<>(uniqueFinalNumbers.size());
+        for (int slot : sortedFinalSlots()) {
+            finalNumbers.add(uniqueFinalNumbers.get(slot).clone());
+        }
+        return finalNumbers;
+    }
+
+    /**
+     * Returns how many numbers reached each unique final number.
+     * @return The counts, in the order of getUniqueFinalNumbers().
+     */
+    public long[] getFinalNumberCounts() {
+        int[] order = sortedFinalSlots();
+        long[] counts = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            counts[i] = finalNumberCounts[order[i]];
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the unique cycles in ascending order of their smallest element, each with the number
+     * of numbers that reached it and the rotation reached from the smallest of those numbers.
+     * @return Copies of the cycles; changing them does not change the aggregate.
+     */
+    public List<UniqueCycleRepresenter> getUniqueCycles() {
+        List<UniqueCycleRepresenter> cycles = new ArrayList<>(uniqueCycles.size());
+        for (UniqueCycleRepresenter cycleRepr : uniqueCycles) {
+            UniqueCycleRepresenter copy = new UniqueCycleRepresenter(cycleRepr.getExampleCycleElements(), base);
+            copy.addCount(cycleRepr.getCount());
+            cycles.add(copy);
+        }
+        cycles.sort((a, b) -> Arrays.compare(a.getCanonicalElement(), b.getCanonicalElement()));
+        return cycles;
+    }
+
+    // Slots of uniqueFinalNumbers in ascending order; equal-length digit arrays compare in numeric order
+    private int[] sortedFinalSlots() {
+        Integer[] order = new Integer[uniqueFinalNumbers.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compare(uniqueFinalNumbers.get(a), uniqueFinalNumbers.get(b)));
+        int[] slots = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            slots[i] = order[i];
+        }
+        return slots;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Returns how many numbers needed each number of steps to reach their final number or cycle.
+     * @return A copy of the histogram, indexed by iterations and trimmed after the last nonzero entry.
+     */
+    public long[] getIterationHistogram() {
+        int length = iterationHistogram.length;
+        while (length > 0 && iterationHistogram[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(iterationHistogram, length);
+    }
+
+    /**
+     * Computes the number of bytes writeTo() needs.
+     * @return The size of the binary form.
+     */
+    int serializedSize() {
+        long[] histogram = getIterationHistogram();
+        int size = 8 + 8 + 4 + 4 + 8 * histogram.length;
+        size += 4 + uniqueFinalNumbers.size() * (n + 8);
+        size += 4;
+        for (UniqueCycleRepresenter cycleRepr : uniqueCycles) {
+            size += 4 + cycleRepr.getExampleCycleElements().size() * n + n + 8;
+        }
+        return size;
+    }
+
+    /**
+     * Writes the aggregate in its binary form: the totals, the iteration histogram, then the final
+     * numbers, and the cycles with the smallest starting number of each, so that aggregates read back
+     * with readFrom() still merge to the same cycle examples. Digits take one byte each, which covers
+     * every base up to 36.
+     * @param buffer Where to write; needs serializedSize() bytes remaining.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(totalCheckedNumbers);
+        buffer.putLong(totalNumbersConvergedToCycles);
+        buffer.putInt(maxIterationsToFinal);
+
+        long[] histogram = getIterationHistogram();
+        buffer.putInt(histogram.length);
+        for (long count : histogram) {
+            buffer.putLong(count);
+        }
+
+        buffer.putInt(uniqueFinalNumbers.size());
+        for (int slot = 0; slot < uniqueFinalNumbers.size(); slot++) {
+            putDigits(buffer, uniqueFinalNumbers.get(slot));
+            buffer.putLong(finalNumberCounts[slot]);
+        }
+
+        buffer.putInt(uniqueCycles.size());
+        for (int slot = 0; slot < uniqueCycles.size(); slot++) {
+            List<int[]> elements = uniqueCycles.get(slot).getExampleCycleElements();
+            buffer.putInt(elements.size());
+            for (int[] element : elements) {
+                putDigits(buffer, element);
+            }
+            putDigits(buffer, cycleExampleStarts.get(slot));
+            buffer.putLong(uniqueCycles.get(slot).getCount());
+        }
+    }
+
+    /**
+     * Reads an aggregate written by writeTo().
+     * @param buffer The binary form, positioned at its start.
+     * @param n The number of digits it was written for.
+     * @param base The base it was written for.
+     * @return The restored aggregate.
+     * @throws IllegalArgumentException if the data is not a valid aggregate for (n, base).
+     * @throws java.nio.BufferUnderflowException if the data is truncated.
+     */
+    static KaprekarAggregate readFrom(ByteBuffer buffer, int n, int base) {
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        aggregate.totalCheckedNumbers = buffer.getLong();
+        aggregate.totalNumbersConvergedToCycles = buffer.getLong();
+        aggregate.maxIterationsToFinal = buffer.getInt();
+
+        int histogramLength = checkedLength(buffer.getInt(), buffer.remaining() / 8);
+        aggregate.iterationHistogram = new long[Math.max(histogramLength, 1)];
+        for (int i = 0; i < histogramLength; i++) {
+            aggregate.iterationHistogram[i] = buffer.getLong();
+        }
+
+        int finalNumbers = checkedLength(buffer.getInt(), buffer.remaining() / (n + 8));
+        for (int i = 0; i < finalNumbers; i++) {
+            int[] finalNumber = getDigits(buffer, n, base);
+            aggregate.addFinalNumber(finalNumber, buffer.getLong());
+        }
+
+        int cycles = checkedLength(buffer.getInt(), buffer.remaining() / (4 + 2 * n + 8));
+        for (int i = 0; i < cycles; i++) {
+            int length = checkedLength(buffer.getInt(), buffer.remaining() / n);
+            if (length < 2) {
+                throw new IllegalArgumentException("A cycle needs at least 2 elements, got " + length);
+            }
+            List<int[]> elements = new ArrayList<>(length);
+            for (int j = 0; j < length; j++) {
+                elements.add(getDigits(buffer, n, base));
+            }
+            int[] start = getDigits(buffer, n, base);
+            aggregate.addCycle(elements, buffer.getLong(), start);
+        }
+        return aggregate;
+    }
+
+    private static void putDigits(ByteBuffer buffer, int[] digits) {
+        for (int digit : digits) {
+            buffer.put((byte) digit);
+        }
+    }
+
+    private static int[] getDigits(ByteBuffer buffer, int n, int base) {
+        int[] digits = new int[n];
+        for (int i = 0; i < n; i++) {
+            digits[i] = buffer.get();
+            if (digits[i] < 0 || digits[i] >= base) {
+                throw new IllegalArgumentException("Digit " + digits[i] + " is out of range for base " + base);
+            }
+        }
+        return digits;
+    }
+
+    // Rejects negative or impossible lengths before anything is allocated for them
+    private static int checkedLength(int length, int limit) {
+        if (length < 0 || length > limit) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,167 @@
+package pack;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Library entry point for embedding the analysis: one number, a range of numbers or the whole
+// n-digit space of a base, returned as KaprekarResult and KaprekarAggregate objects instead of text.
+// Per-number results can be streamed to a consumer as they are produced. An instance is immutable
+// and may be shared between threads; each thread analyzes with its own engine instance, and every
+// call returns a fresh aggregate.
+public final class KaprekarAnalyzer {
+    private final int n;
+    private final int base;
+    private final AnalysisEngine engine;
+    private final int parallelism;
+
+    // Engine instance per calling thread, so the successor graph's memo survives between calls
+    private final ThreadLocal<Function<int[], KaprekarResult>> analyzers;
+
+    /**
+     * Creates an analyzer that uses the successor graph on the calling thread.
+     * @param n The number of digits.
+     * @param base The base of the number system, from 2 to 36.
+     * @throws IllegalArgumentException if the configuration is invalid.
+     */
+    public KaprekarAnalyzer(int n, int base) {
+        this(n, base, AnalysisEngine.SUCCESSOR_GRAPH, 1);
+    }
+
+    /**
+     * @param n The number of digits.
+     * @param base The base of the number system, from 2 to 36.
+     * @param engine How single numbers are analyzed; all engines give the same results.
+     * @param parallelism Worker threads for analyzeAll(); 1 runs it on the calling thread.
+     * @throws IllegalArgumentException if the configuration is invalid.
+     */
+    public KaprekarAnalyzer(int n, int base, AnalysisEngine engine, int parallelism) {
+        String error = o7_16_2025.checkConfiguration(n, base);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1.");
+        }
+        this.n = n;
+        this.base = base;
+        this.engine = engine;
+        this.parallelism = parallelism;
+        this.analyzers = ThreadLocal.withInitial(() -> engine.newAnalyzer(n, base));
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    /**
+     * Analyzes the Kaprekar sequence of one number.
+     * @param digits The number's n digits, most significant first; leading zeros and repdigits are allowed.
+     * @return The outcome of the number's sequence.
+     * @throws IllegalArgumentException if the array does not hold n digits of this base.
+     */
+    public KaprekarResult analyze(int[] digits) {
+        if (digits.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " digits, got " + digits.length + ".");
+        }
+        for (int digit : digits) {
+            if (digit < 0 || digit >= base) {
+                throw new IllegalArgumentException("Digit " + digit + " is out of range for Base " + base + ".");
+            }
+        }
+        return analyzers.get().apply(digits.clone());
+    }
+
+    /**
+     * Analyzes the Kaprekar sequence of one number of any length, following digit-count vectors
+     * (AnalysisEngine.MULTISET_DYNAMICS) so that each step costs O(base) however many digits there
+     * are. Unlike an analyzer's configuration, n is not limited by how many n-digit numbers there are.
+     * @param digits The number's digits, most significant first; leading zeros and repdigits are allowed.
+     * @param base The base of the number system, from 2 to 36.
+     * @return The outcome of the number's sequence.
+     * @throws IllegalArgumentException if the base is out of range, there are no digits or a digit is out of range.
+     */
+    public static KaprekarResult analyzeNumber(int[] digits, int base) {
+        if (base < 2 || base > 36) {
+            throw new IllegalArgumentException("Base must be between 2 and 36 (inclusive).");
+        }
+        if (digits.length == 0) {
+            throw new IllegalArgumentException("A number needs at least one digit.");
+        }
+        for (int digit : digits) {
+            if (digit < 0 || digit >= base) {
+                throw new IllegalArgumentException("Digit " + digit + " is out of range for Base " + base + ".");
+            }
+        }
+        return new MultisetDynamics(digits.length, base).analyze(digits.clone());
+    }
+
+    /**
+     * Analyzes the valid numbers among the packed values from (inclusive) to to (exclusive), i.e. the
+     * numbers without a leading zero whose digits are not all equal.
+     * @param from The first packed value (see o7_16_2025.digitsToLong).
+     * @param to One past the last packed value.
+     * @param results Receives every number's result as it is produced, or null.
+     * @return The aggregate over the valid numbers in the range.
+     * @throws IllegalArgumentException if n-digit values do not fit a long or the range is out of bounds.
+     */
+    public KaprekarAggregate analyzeRange(long from, long to, Consumer<? super KaprekarResult> results) {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " do not fit in a long");
+        }
+        long limit = 1;
+        for (int i = 0; i < n; i++) {
+            limit *= base;
+        }
+        if (from < 0 || to > limit || from > to) {
+            throw new IllegalArgumentException("Range [" + from + ", " + to + ") is not within [0, " + limit + ").");
+        }
+
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        Function<int[], KaprekarResult> analyzer = analyzers.get();
+        for (long value = from; value < to; value++) {
+            int[] digits = o7_16_2025.longToPaddedDigits(value, n, base);
+            if (o7_16_2025.checkedNumber(digits, base)) {
+                KaprekarResult result = analyzer.apply(digits);
+                aggregate.add(result);
+                if (results != null) {
+                    results.accept(result);
+                }
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * Analyzes every valid n-digit number, taking whatever shortcut the engine allows (digit
+     * multisets, or the dense table) since no per-number results are needed. The aggregate is the
+     * same as that of analyzeAll(Consumer), iteration histogram and cycle rotations included.
+     * @return The aggregate over the whole space.
+     */
+    public KaprekarAggregate analyzeAll() {
+        boolean useMultisetEnumeration = engine != AnalysisEngine.DENSE_TABLE;
+        return o7_16_2025.runSweep(n, base, useMultisetEnumeration, engine, parallelism);
+    }
+
+    /**
+     * Analyzes every valid n-digit number one by one, in increasing order, streaming each result.
+     * This runs on the calling thread whatever the parallelism, so that the consumer sees results in order.
+     * @param results Receives every number's result; each result owns its digit arrays.
+     * @return The aggregate over the whole space.
+     */
+    public KaprekarAggregate analyzeAll(Consumer<? super KaprekarResult> results) {
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        Function<int[], KaprekarResult> analyzer = analyzers.get();
+        // forEachNumber reuses its buffer, so each result gets its own copy of the initial digits
+        o7_16_2025.forEachNumber(n, base, digits -> {
+            KaprekarResult result = analyzer.apply(Arrays.copyOf(digits, n));
+            aggregate.add(result);
+            results.accept(result);
+        });
+        return aggregate;
+    }
+} // End of class KaprekarAnalyzer
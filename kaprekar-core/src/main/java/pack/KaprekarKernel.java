@@ -0,0 +1,88 @@
+package pack;
+
+// Allocation-free Kaprekar step on packed values.
+// A number is a long holding its digits in the given base (see o7_16_2025.digitsToLong). One step
+// counts the digits into a reusable histogram and rebuilds the decreasing and increasing orderings
+// from it, so nothing is allocated, cloned or sorted per step. The histogram makes an instance
+// single-threaded; give each thread its own kernel.
+class KaprekarKernel {
+    private final int n;
+    private final int base;
+    private final int[] counts;
+
+    /**
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @throws IllegalArgumentException if n-digit values in this base do not fit in a long.
+     */
+    public KaprekarKernel(int n, int base) {
+        if (!fitsInLong(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " do not fit in a long");
+        }
+        this.n = n;
+        this.base = base;
+        this.counts = new int[base];
+    }
+
+    /**
+     * Computes the next value of the Kaprekar sequence.
+     * @param number The packed current value.
+     * @return The packed value of (digits in decreasing order) - (digits in increasing order).
+     */
+    public long step(long number) {
+        return step(number, n, base, counts);
+    }
+
+    /**
+     * Computes the next value of the Kaprekar sequence using a caller-supplied histogram.
+     * @param number The packed current value.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param counts A zeroed scratch array of length `base`; it is zeroed again on return.
+     * @return The packed value of (digits in decreasing order) - (digits in increasing order).
+     */
+    static long step(long number, int n, int base, int[] counts) {
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelStep();
+        }
+        // Counting pass: digit histogram, leading zeros included
+        for (int i = 0; i < n; i++) {
+            counts[(int) (number % base)]++;
+            number /= base;
+        }
+
+        long decreasing = 0;
+        for (int digit = base - 1; digit >= 0; digit--) {
+            for (int c = counts[digit]; c > 0; c--) {
+                decreasing = decreasing * base + digit;
+            }
+        }
+
+        long increasing = 0;
+        for (int digit = 0; digit < base; digit++) {
+            for (int c = counts[digit]; c > 0; c--) {
+                increasing = increasing * base + digit;
+            }
+            counts[digit] = 0;
+        }
+
+        return decreasing - increasing;
+    }
+
+    /**
+     * Checks whether n-digit values in a base fit in a long, i.e. whether base^n <= Long.MAX_VALUE.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return true if every n-digit value and every intermediate of `step` fits in a long.
+     */
+    public static boolean fitsInLong(int n, int base) {
+        long power = 1;
+        for (int i = 0; i < n; i++) {
+            if (power > Long.MAX_VALUE / base) {
+                return false;
+            }
+            power *= base;
+        }
+        return true;
+    }
+} // End of class KaprekarKernel
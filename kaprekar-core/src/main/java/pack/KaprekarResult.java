@@ -0,0 +1,57 @@
+package pack;
+
+import java.util.List;
+
+// The outcome of one number's Kaprekar sequence: the fixed point or cycle it ends in and the
+// number of steps it takes to get there.
+public class KaprekarResult {
+    private int[] initialNumber;
+    private ResultType type;
+    private int[] finalNumber;
+    private List<int[]> cycleElements;
+    private int iterations;
+    private int base; // Store the base for correct display in toString()
+
+    public KaprekarResult(int[] initialNumber, int[] finalNumber, int iterations, int base) {
+        this.initialNumber = initialNumber;
+        this.type = ResultType.FINAL;
+        this.finalNumber = finalNumber;
+        this.iterations = iterations;
+        this.base = base;
+    }
+
+    public KaprekarResult(int[] initialNumber, List<int[]> cycleElements, int iterations, int base) {
+        this.initialNumber = initialNumber;
+        this.type = ResultType.CYCLE;
+        this.cycleElements = cycleElements;
+        this.iterations = iterations;
+        this.base = base;
+    }
+
+    public int[] getInitialNumber() { return initialNumber; }
+    public ResultType getType() { return type; }
+    public int[] getFinalNumber() { return finalNumber; }
+    public List<int[]> getCycleElements() { return cycleElements; }
+    public int getIterations() { return iterations; }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Initial: ").append(o7_16_2025.arrayToStringWithBaseDigits(initialNumber, base))
+          .append(", Type: ").append(type)
+          .append(", Iterations: ").append(iterations);
+        if (type == ResultType.FINAL) {
+            sb.append(", FinalNum: ").append(o7_16_2025.arrayToStringWithBaseDigits(finalNumber, base));
+        } else { // CYCLE
+            sb.append(", Cycle: [");
+            for (int i = 0; i < cycleElements.size(); i++) {
+                sb.append(o7_16_2025.arrayToStringWithBaseDigits(cycleElements.get(i), base));
+                if (i < cycleElements.size() - 1) {
+                    sb.append(" -> ");
+                }
+            }
+            sb.append("]");
+        }
+        return sb.toString();
+    }
+} // End of class KaprekarResult
@@ -0,0 +1,364 @@
+package pack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Embedded HTTP server for interactive queries, on the JDK's com.sun.net.httpserver:
+//     GET /analyze?number=3524&base=10   the outcome of one number (n is the number of digits given)
+//     GET /summary?n=4&base=10           the aggregate over every valid n-digit number, as JSON
+//     GET /stats                         cache size, hits, misses and coalesced requests
+// Every request runs on its own virtual thread when the JVM has them (Java 21+), and on a cached
+// pool otherwise, so a request that waits never holds up another. Point lookups are a single
+// trajectory and run right on the request thread. Summaries come from a bounded LRU cache of
+// aggregates; a miss is swept on a separate, fixed-size executor, and concurrent requests for the
+// same configuration share one sweep. Only those sweeps are ever queued, so they cannot delay a
+// lookup or a cached summary.
+public final class KaprekarServer {
+    // How long stop() lets exchanges in progress finish, in seconds
+    private static final int STOP_DELAY_SECONDS = 1;
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor;
+    private final ExecutorService sweepExecutor;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private final AnalysisEngine engine;
+    private final int parallelism;
+    private final long timeBudgetNanos;
+    private final ResultStore store;
+
+    // Finished aggregates by (n, base), least recently used first; guarded by itself
+    private final int cacheSize;
+    private final LinkedHashMap<Long, KaprekarAggregate> cache = new LinkedHashMap<>(16, 0.75f, true);
+    // Sweeps in progress by (n, base); a request that finds one here waits for it instead of sweeping
+    private final ConcurrentHashMap<Long, CompletableFuture<KaprekarAggregate>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder coalescedRequests = new LongAdder();
+
+    /**
+     * Creates a server on the loopback interface; call start() to accept requests.
+     * @param port The port, or 0 for any free port (see getPort()).
+     * @param engine How summaries are swept.
+     * @param parallelism Worker threads inside one summary sweep.
+     * @param sweeps Summary sweeps that may run at the same time.
+     * @param cacheSize How many summaries are kept.
+     * @param timeBudgetNanos How long one summary sweep may take, or Long.MAX_VALUE for no limit.
+     * @param store Where finished sweeps are kept across restarts, or null.
+     * @throws IOException if the port cannot be bound.
+     */
+    public KaprekarServer(int port, AnalysisEngine engine, int parallelism, int sweeps, int cacheSize,
+                          long timeBudgetNanos, ResultStore store) throws IOException {
+        if (parallelism < 1 || sweeps < 1 || cacheSize < 1) {
+            throw new IllegalArgumentException("Parallelism, sweeps and cache size must be at least 1.");
+        }
+        this.engine = engine;
+        this.parallelism = parallelism;
+        this.timeBudgetNanos = timeBudgetNanos;
+        this.store = store;
+        this.cacheSize = cacheSize;
+
+        this.requestExecutor = newRequestExecutor();
+        AtomicInteger sweepThreads = new AtomicInteger();
+        this.sweepExecutor = Executors.newFixedThreadPool(sweeps, runnable -> {
+            Thread thread = new Thread(runnable, "kaprekar-sweep-" + sweepThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(requestExecutor);
+        server.createContext("/analyze", exchange -> handle(exchange, this::analyze));
+        server.createContext("/summary", exchange -> handle(exchange, this::summary));
+        server.createContext("/stats", exchange -> handle(exchange, parameters -> stats()));
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, looked up reflectively so the
+     * code still compiles and runs on Java 17, where a cached pool of daemon threads stands in.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger requestThreads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "kaprekar-request-" + requestThreads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, lets the ones in progress finish briefly and abandons running sweeps.
+     */
+    public void stop() {
+        server.stop(STOP_DELAY_SECONDS);
+        requestExecutor.shutdownNow();
+        sweepExecutor.shutdownNow();
+        stopped.countDown();
+    }
+
+    /**
+     * Blocks until stop() is called.
+     * @throws InterruptedException if the waiting thread is interrupted.
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the aggregate of a configuration: from the cache, from a sweep already in progress,
+     * or from a new sweep on the sweep executor.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A future that completes with the aggregate, or with a SweepTimeoutException.
+     */
+    CompletableFuture<KaprekarAggregate> aggregate(int n, int base) {
+        Long key = ((long) n << 32) | base;
+        KaprekarAggregate cached = cached(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<KaprekarAggregate> sweep = new CompletableFuture<>();
+        CompletableFuture<KaprekarAggregate> existing = inFlight.putIfAbsent(key, sweep);
+        if (existing != null) {
+            coalescedRequests.increment();
+            return existing;
+        }
+        // A sweep may have finished between the cache lookup and putIfAbsent
+        cached = cached(key);
+        if (cached != null) {
+            inFlight.remove(key, sweep);
+            cacheHits.increment();
+            sweep.complete(cached);
+            return sweep;
+        }
+
+        cacheMisses.increment();
+        sweepExecutor.execute(() -> {
+            try {
+                long deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+                KaprekarAggregate aggregate = o7_16_2025.loadOrRunSweep(store, null, n, base,
+                        engine != AnalysisEngine.DENSE_TABLE, engine, parallelism, deadline);
+                synchronized (cache) {
+                    cache.put(key, aggregate);
+                    Iterator<KaprekarAggregate> eldest = cache.values().iterator();
+                    while (cache.size() > cacheSize) {
+                        eldest.next();
+                        eldest.remove();
+                    }
+                }
+                sweep.complete(aggregate);
+            } catch (Throwable e) {
+                sweep.completeExceptionally(e);
+            } finally {
+                // After the cache holds the result, so no request can miss both
+                inFlight.remove(key, sweep);
+            }
+        });
+        return sweep;
+    }
+
+    private KaprekarAggregate cached(Long key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    // Answers one request from its query parameters with a JSON body
+    private interface Endpoint {
+        String respond(Map<String, String> parameters) throws Exception;
+    }
+
+    private static void handle(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        int status;
+        String body;
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                status = 405;
+                body = error("Only GET is supported.");
+            } else {
+                status = 200;
+                body = endpoint.respond(parseQuery(exchange.getRequestURI().getRawQuery()));
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException lands here too
+            status = 400;
+            body = error(e.getMessage());
+        } catch (SweepTimeoutException e) {
+            status = 504;
+            body = error("The sweep exceeded its time budget.");
+        } catch (Exception e) {
+            status = 500;
+            body = error(String.valueOf(e));
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String analyze(Map<String, String> parameters) {
+        int base = intParameter(parameters, "base");
+        String number = parameter(parameters, "number");
+        int[] digits = new int[number.length()];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = Character.digit(number.charAt(i), base);
+            if (digits[i] < 0) {
+                throw new IllegalArgumentException("'" + number.charAt(i) + "' is not a digit in Base " + base + ".");
+            }
+        }
+        // One trajectory in count vectors: constant memory, O(base) per step, and any number of digits
+        KaprekarResult result = KaprekarAnalyzer.analyzeNumber(digits, base);
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"number\":\"").append(digitString(digits)).append("\",\"base\":").append(base)
+            .append(",\"type\":\"").append(result.getType()).append("\",\"iterations\":").append(result.getIterations());
+        if (result.getType() == ResultType.FINAL) {
+            json.append(",\"finalNumber\":\"").append(digitString(result.getFinalNumber())).append('"');
+        } else {
+            json.append(",\"cycle\":");
+            appendDigitStrings(json, result.getCycleElements());
+        }
+        return json.append('}').toString();
+    }
+
+    private String summary(Map<String, String> parameters) throws Exception {
+        int n = intParameter(parameters, "n");
+        int base = intParameter(parameters, "base");
+        String error = o7_16_2025.checkConfiguration(n, base);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        KaprekarAggregate aggregate;
+        try {
+            aggregate = aggregate(n, base).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"n\":").append(n).append(",\"base\":").append(base)
+            .append(",\"totalCheckedNumbers\":").append(aggregate.getTotalCheckedNumbers())
+            .append(",\"maxIterationsToFinal\":").append(aggregate.getMaxIterationsToFinal())
+            .append(",\"totalNumbersConvergedToCycles\":").append(aggregate.getTotalNumbersConvergedToCycles())
+            .append(",\"finalNumbers\":[");
+        List<int[]> finalNumbers = aggregate.getUniqueFinalNumbers();
+        long[] finalNumberCounts = aggregate.getFinalNumberCounts();
+        for (int i = 0; i < finalNumbers.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("{\"number\":\"").append(digitString(finalNumbers.get(i)))
+                .append("\",\"count\":").append(finalNumberCounts[i]).append('}');
+        }
+        json.append("],\"cycles\":[");
+        boolean first = true;
+        for (UniqueCycleRepresenter cycle : aggregate.getUniqueCycles()) {
+            json.append(first ? "" : ",").append("{\"elements\":");
+            appendDigitStrings(json, cycle.getExampleCycleElements());
+            json.append(",\"count\":").append(cycle.getCount()).append('}');
+            first = false;
+        }
+        json.append("],\"iterationHistogram\":[");
+        long[] histogram = aggregate.getIterationHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            json.append(i == 0 ? "" : ",").append(histogram[i]);
+        }
+        return json.append("]}").toString();
+    }
+
+    private String stats() {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        return "{\"cachedSummaries\":" + cached + ",\"cacheCapacity\":" + cacheSize
+                + ",\"cacheHits\":" + cacheHits.sum() + ",\"cacheMisses\":" + cacheMisses.sum()
+                + ",\"coalescedRequests\":" + coalescedRequests.sum() + ",\"sweepsInProgress\":" + inFlight.size() + "}";
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static String parameter(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'.");
+        }
+        return value;
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name) {
+        return Integer.parseInt(parameter(parameters, name));
+    }
+
+    private static String digitString(int[] digits) {
+        StringBuilder text = new StringBuilder(digits.length);
+        for (int digit : digits) {
+            text.append(o7_16_2025.digitToChar(digit));
+        }
+        return text.toString();
+    }
+
+    private static void appendDigitStrings(StringBuilder json, List<int[]> numbers) {
+        json.append('[');
+        for (int i = 0; i < numbers.size(); i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(digitString(numbers.get(i))).append('"');
+        }
+        json.append(']');
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+} // End of class KaprekarServer
@@ -0,0 +1,194 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Kaprekar sequences followed in multiset space, for digit counts far beyond what fits in a long.
+// A state is a digit-count vector (counts[d] is how often d occurs, leading zeros included), so it
+// takes `base` ints whatever n is. The next state comes straight from the counts: read from the
+// least significant end, the decreasing order runs through the digits upwards and the increasing
+// order downwards, so there are at most 2 * base segments in which both digits are constant.
+// Within a segment the borrow is the same from its second position on, so a segment contributes at
+// most two runs of equal digits to the image, and a step costs O(base) instead of O(n).
+//
+// Brent's cycle detection runs on the count vectors. Different numbers can share a count vector,
+// so the number-level result is recovered afterwards: the numbers of the cycle are the images of
+// the cycle's count vectors, and the first number on the cycle is either the one whose count vector
+// is the first on the multiset cycle or the one after it, which a single comparison decides. Results
+// are identical to those of the other engines. An instance is single-threaded.
+class MultisetDynamics {
+    private final int n;
+    private final int base;
+
+    // The last image in run-length form, least significant run first
+    private final int[] runDigits;
+    private final int[] runLengths;
+    private int runCount;
+
+    /**
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     */
+    MultisetDynamics(int n, int base) {
+        this.n = n;
+        this.base = base;
+        // At most 2 * base segments of two runs each
+        this.runDigits = new int[4 * base];
+        this.runLengths = new int[4 * base];
+    }
+
+    /**
+     * Analyzes the Kaprekar sequence of one number.
+     * @param initialDigits The number's n digits, most significant first.
+     * @return The outcome, identical to `o7_16_2025.analyzeKaprekarSequenceBrent`.
+     */
+    KaprekarResult analyze(int[] initialDigits) {
+        int[] start = new int[base];
+        for (int digit : initialDigits) {
+            start[digit]++;
+        }
+        int[] tortoise = start.clone();
+        int[] hare = new int[base];
+        int[] scratch = new int[base];
+
+        // Phase 1: cycle length of the count vectors
+        step(start, hare);
+        int power = 1;
+        int cycleLength = 1;
+        while (!Arrays.equals(tortoise, hare)) {
+            if (power == cycleLength) {
+                System.arraycopy(hare, 0, tortoise, 0, base);
+                power *= 2;
+                cycleLength = 0;
+            }
+            step(hare, scratch);
+            int[] swap = hare;
+            hare = scratch;
+            scratch = swap;
+            cycleLength++;
+        }
+
+        // Phase 2: the first count vector on the cycle, and the one before it
+        System.arraycopy(start, 0, tortoise, 0, base);
+        System.arraycopy(start, 0, hare, 0, base);
+        for (int i = 0; i < cycleLength; i++) {
+            step(hare, scratch);
+            int[] swap = hare;
+            hare = scratch;
+            scratch = swap;
+        }
+        int[] previous = null;
+        int multisetStartIndex = 0;
+        while (!Arrays.equals(tortoise, hare)) {
+            if (previous == null) {
+                previous = new int[base];
+            }
+            step(tortoise, scratch);
+            int[] swap = previous;
+            previous = tortoise;
+            tortoise = scratch;
+            scratch = swap;
+            step(hare, scratch);
+            swap = hare;
+            hare = scratch;
+            scratch = swap;
+            multisetStartIndex++;
+        }
+
+        // Phase 3: the cycle's numbers are the images of its count vectors
+        List<int[]> images = new ArrayList<>(cycleLength);
+        for (int i = 0; i < cycleLength; i++) {
+            step(tortoise, scratch);
+            images.add(expandRuns());
+            int[] swap = tortoise;
+            tortoise = scratch;
+            scratch = swap;
+        }
+        // The last image is the cycle's only number with the first cycle vector as its digits; the
+        // number that had that vector in the sequence is either it or merely another arrangement
+        int[] last = images.get(cycleLength - 1);
+        int[] candidate;
+        if (previous == null) {
+            candidate = initialDigits;
+        } else {
+            step(previous, scratch);
+            candidate = expandRuns();
+        }
+        boolean onCycle = Arrays.equals(candidate, last);
+        int cycleStartIndex = onCycle ? multisetStartIndex : multisetStartIndex + 1;
+
+        if (cycleLength == 1) {
+            return new KaprekarResult(initialDigits, images.get(0), cycleStartIndex, base);
+        }
+        List<int[]> cycleElements = new ArrayList<>(cycleLength);
+        if (onCycle) {
+            cycleElements.add(last);
+            cycleElements.addAll(images.subList(0, cycleLength - 1));
+        } else {
+            cycleElements.addAll(images);
+        }
+        return new KaprekarResult(initialDigits, cycleElements, cycleStartIndex, base);
+    }
+
+    /**
+     * Computes the count vector of the image of a count vector, and keeps the image in run-length form.
+     * @param counts The current count vector; not modified.
+     * @param next Receives the image's count vector; must not be `counts`.
+     */
+    void step(int[] counts, int[] next) {
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelStep();
+        }
+        Arrays.fill(next, 0);
+        runCount = 0;
+        // From the least significant end: the minuend's digits go up, the subtrahend's come down
+        int minuend = -1;
+        int minuendLeft = 0;
+        int subtrahend = base;
+        int subtrahendLeft = 0;
+        int borrow = 0;
+        for (int left = n; left > 0; ) {
+            while (minuendLeft == 0) {
+                minuendLeft = counts[++minuend];
+            }
+            while (subtrahendLeft == 0) {
+                subtrahendLeft = counts[--subtrahend];
+            }
+            int length = Math.min(minuendLeft, subtrahendLeft);
+
+            int difference = minuend - subtrahend - borrow;
+            borrow = difference >>> 31;
+            addRun(difference + (base & (difference >> 31)), 1, next);
+            if (length > 1) {
+                // The borrow out of the first position is also the borrow out of every later one
+                difference = minuend - subtrahend - borrow;
+                addRun(difference + (base & (difference >> 31)), length - 1, next);
+            }
+            minuendLeft -= length;
+            subtrahendLeft -= length;
+            left -= length;
+        }
+    }
+
+    private void addRun(int digit, int length, int[] next) {
+        next[digit] += length;
+        runDigits[runCount] = digit;
+        runLengths[runCount] = length;
+        runCount++;
+    }
+
+    /**
+     * @return The digits of the last image, most significant first.
+     */
+    private int[] expandRuns() {
+        int[] digits = new int[n];
+        int position = n;
+        for (int r = 0; r < runCount; r++) {
+            for (int i = 0; i < runLengths[r]; i++) {
+                digits[--position] = runDigits[r];
+            }
+        }
+        return digits;
+    }
+} // End of class MultisetDynamics
@@ -0,0 +1,231 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Enumerates the digit multisets of n-digit numbers in a given base.
+// The first Kaprekar step only depends on which digits a number has, not on their order, so
+// every arrangement of a multiset shares the same outcome. Walking the C(n + base - 1, n)
+// multisets and weighting each by its number of valid arrangements replaces the base^n walk
+// done by o7_16_2025.generateAllNumbers.
+class MultisetEnumerator {
+
+    // Pascal's triangle shared across sweeps, see binomialTable
+    private static volatile long[][] sharedBinomials = new long[0][];
+
+    // Receives one multiset at a time.
+    interface MultisetVisitor {
+        /**
+         * @param descendingDigits The multiset's digits in decreasing order. The array is reused
+         *                         between calls, so clone it before keeping it.
+         * @param weight The number of valid arrangements of the multiset (see `checkedNumber`).
+         */
+        void visit(int[] descendingDigits, long weight);
+    }
+
+    /**
+     * Visits every multiset of n digits in the given base that has at least one valid arrangement,
+     * i.e. every multiset whose digits are not all equal.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param visitor The callback receiving each multiset and its weight.
+     */
+    public static void forEachMultiset(int n, int base, MultisetVisitor visitor) {
+        forEachMultiset(n, base, new int[0], visitor);
+    }
+
+    /**
+     * Visits the multisets whose counts of the largest digits are fixed by a prefix, in the same
+     * order `forEachMultiset` visits them. The prefixes returned by `prefixes` partition the
+     * multiset space, which lets a sweep be split into independent pieces.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param topCounts topCounts[i] is the count of digit (base - 1 - i); at most base - 1 entries.
+     * @param visitor The callback receiving each multiset and its weight.
+     */
+    public static void forEachMultiset(int n, int base, int[] topCounts, MultisetVisitor visitor) {
+        long[][] binomials = binomialTable(n);
+        int[] counts = new int[base];
+        int[] descendingDigits = new int[n];
+        int remaining = n;
+        for (int i = 0; i < topCounts.length; i++) {
+            int digit = base - 1 - i;
+            counts[digit] = topCounts[i];
+            for (int j = 0; j < topCounts[i]; j++) {
+                descendingDigits[n - remaining + j] = digit;
+            }
+            remaining -= topCounts[i];
+        }
+        forEachMultisetRecursive(counts, base - 1 - topCounts.length, remaining, n, descendingDigits, binomials, visitor);
+    }
+
+    /**
+     * Lists every prefix of `depth` top-digit counts, in enumeration order.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param depth How many of the largest digits each prefix fixes (capped at base - 1).
+     * @return The prefixes to pass to `forEachMultiset(n, base, topCounts, visitor)`.
+     */
+    public static List<int[]> prefixes(int n, int base, int depth) {
+        List<int[]> prefixes = new ArrayList<>();
+        prefixesRecursive(new int[Math.min(depth, base - 1)], 0, n, prefixes);
+        return prefixes;
+    }
+
+    private static void prefixesRecursive(int[] prefix, int position, int remaining, List<int[]> prefixes) {
+        if (position == prefix.length) {
+            prefixes.add(prefix.clone());
+            return;
+        }
+        for (int count = remaining; count >= 0; count--) {
+            prefix[position] = count;
+            prefixesRecursive(prefix, position + 1, remaining - count, prefixes);
+        }
+    }
+
+    /**
+     * Recursive helper for `forEachMultiset`. Chooses how many copies of `digit` the multiset holds,
+     * going from the largest digit down to 0, so the digits fill `descendingDigits` left to right.
+     * @param counts The digit-count histogram built so far.
+     * @param digit The digit whose count is chosen at this level.
+     * @param remaining How many digits are still to be placed.
+     * @param n The total number of digits.
+     * @param descendingDigits The digits placed so far, in decreasing order.
+     * @param binomials Pascal's triangle up to row n.
+     * @param visitor The callback receiving each complete multiset.
+     */
+    private static void forEachMultisetRecursive(int[] counts, int digit, int remaining, int n,
+                                                 int[] descendingDigits, long[][] binomials, MultisetVisitor visitor) {
+        if (digit == 0) {
+            // Digit 0 takes whatever positions are left
+            counts[0] = remaining;
+            for (int i = n - remaining; i < n; i++) {
+                descendingDigits[i] = 0;
+            }
+            if (descendingDigits[0] != descendingDigits[n - 1]) {
+                visitor.visit(descendingDigits, countValidArrangements(counts, n, binomials));
+            }
+            counts[0] = 0;
+            return;
+        }
+
+        int position = n - remaining;
+        for (int count = remaining; count >= 0; count--) {
+            counts[digit] = count;
+            for (int i = 0; i < count; i++) {
+                descendingDigits[position + i] = digit;
+            }
+            forEachMultisetRecursive(counts, digit - 1, remaining - count, n, descendingDigits, binomials, visitor);
+        }
+        counts[digit] = 0;
+    }
+
+    /**
+     * Counts the arrangements of a multiset that are valid n-digit numbers: all arrangements
+     * minus those that start with a zero.
+     * @param counts The digit-count histogram of the multiset.
+     * @param n The number of digits.
+     * @param binomials Pascal's triangle up to row n.
+     * @return The number of valid arrangements.
+     * @throws ArithmeticException if the count does not fit in a long.
+     */
+    static long countValidArrangements(int[] counts, int n, long[][] binomials) {
+        long arrangements = multinomial(counts, n, binomials);
+        if (counts[0] > 0) {
+            // Fix a zero in the leading position and arrange the remaining n - 1 digits
+            counts[0]--;
+            arrangements -= multinomial(counts, n - 1, binomials);
+            counts[0]++;
+        }
+        return arrangements;
+    }
+
+    /**
+     * Computes n! / (counts[0]! * counts[1]! * ...) as a product of binomial coefficients.
+     * @param counts The digit-count histogram, summing to n.
+     * @param n The number of digits.
+     * @param binomials Pascal's triangle up to at least row n.
+     * @return The multinomial coefficient.
+     * @throws ArithmeticException if the coefficient does not fit in a long.
+     */
+    private static long multinomial(int[] counts, int n, long[][] binomials) {
+        long result = 1;
+        int remaining = n;
+        for (int count : counts) {
+            if (count > 0) {
+                result = Math.multiplyExact(result, binomials[remaining][count]);
+                remaining -= count;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns Pascal's triangle up to at least row n. The table is shared by every sweep in the JVM
+     * and only rebuilt when a larger n is requested; its rows are never modified after publication.
+     * @param n The last row needed.
+     * @return The table with binomials[i][k] = C(i, k), possibly with more than n + 1 rows.
+     */
+    static long[][] binomialTable(int n) {
+        long[][] binomials = sharedBinomials;
+        if (binomials.length <= n) {
+            binomials = buildBinomialTable(n);
+            sharedBinomials = binomials;
+        }
+        return binomials;
+    }
+
+    /**
+     * Builds Pascal's triangle up to row n. Entries that overflow a long are stored as Long.MAX_VALUE,
+     * which makes any multinomial using them fail in Math.multiplyExact.
+     * @param n The last row to build.
+     * @return The table with binomials[i][k] = C(i, k).
+     */
+    private static long[][] buildBinomialTable(int n) {
+        long[][] binomials = new long[n + 1][];
+        for (int i = 0; i <= n; i++) {
+            binomials[i] = new long[i + 1];
+            binomials[i][0] = 1;
+            binomials[i][i] = 1;
+            for (int k = 1; k < i; k++) {
+                long sum = binomials[i - 1][k - 1] + binomials[i - 1][k];
+                binomials[i][k] = sum < 0 ? Long.MAX_VALUE : sum;
+            }
+        }
+        return binomials;
+    }
+
+    /**
+     * Counts the digit multisets that `forEachMultiset` visits: C(n + base - 1, n) minus the
+     * `base` multisets made of a single repeated digit.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The number of multisets with at least two distinct digits.
+     */
+    public static long countMultisets(int n, int base) {
+        long multisets = 1;
+        // C(n + base - 1, base - 1), built up one factor at a time so every division is exact
+        for (int k = 1; k < base; k++) {
+            multisets = Math.multiplyExact(multisets, n + k) / k;
+        }
+        return multisets - base;
+    }
+
+    /**
+     * Counts the valid n-digit numbers in a base, matching the size of `generateAllNumbers`:
+     * (base - 1) * base^(n - 1) numbers without a leading zero, minus the base - 1 repdigits.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The number of valid numbers.
+     */
+    public static long countValidNumbers(int n, int base) {
+        if (n < 2) {
+            return 0;
+        }
+        long numbers = base - 1;
+        for (int i = 1; i < n; i++) {
+            numbers = Math.multiplyExact(numbers, base);
+        }
+        return numbers - (base - 1);
+    }
+} // End of class MultisetEnumerator
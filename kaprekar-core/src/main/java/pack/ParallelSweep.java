@@ -0,0 +1,137 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+// Fork-join version of the sweep in o7_16_2025.main.
+// The digit space (packed values base^(n-1) .. base^n - 1) or the multiset space (prefixes of
+// top-digit counts) is split into ranges. Each leaf task fills its own KaprekarAggregate using an
+// analyzer owned by the worker thread, and partial aggregates are merged left to right on the way
+// back up, so the report is the same as the sequential one whatever the parallelism level.
+class ParallelSweep {
+    // Packed values analyzed by one leaf task of the digit-space sweep
+    private static final long LEAF_RANGE = 1 << 12;
+    // Top digits fixed per leaf task of the multiset sweep
+    private static final int PREFIX_DEPTH = 2;
+
+    private final int n;
+    private final int base;
+    private final boolean useMultisetEnumeration;
+    private final int parallelism;
+
+    // One analyzer per worker thread, so a successor graph's memo is shared by all of its leaves
+    private final ThreadLocal<Function<int[], KaprekarResult>> analyzers;
+
+    /**
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to split the multiset space instead of the digit space.
+     * @param engine The analysis engine; each worker thread gets its own instance.
+     * @param parallelism The number of worker threads.
+     * @param deadlineNanos The System.nanoTime() after which the sweep fails with a SweepTimeoutException,
+     *                      or Long.MAX_VALUE for none.
+     */
+    public ParallelSweep(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine, int parallelism,
+                         long deadlineNanos) {
+        if (!useMultisetEnumeration && !KaprekarKernel.fitsInLong(n, base)) {
+            // The digit-space split works on ranges of packed values
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " do not fit in a long");
+        }
+        this.n = n;
+        this.base = base;
+        this.useMultisetEnumeration = useMultisetEnumeration;
+        this.parallelism = parallelism;
+        this.analyzers = ThreadLocal.withInitial(
+                () -> o7_16_2025.withDeadline(SweepMetrics.instrument(engine.newAnalyzer(n, base)), deadlineNanos));
+    }
+
+    /**
+     * Runs the sweep on a dedicated ForkJoinPool and returns the merged aggregate.
+     * @return The aggregate over every valid n-digit number.
+     */
+    public KaprekarAggregate run() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            if (useMultisetEnumeration) {
+                return pool.invoke(new MultisetTask(MultisetEnumerator.prefixes(n, base, PREFIX_DEPTH)));
+            }
+            long from = 1;
+            for (int i = 1; i < n; i++) {
+                from *= base;
+            }
+            // Values below base^(n-1) have a leading zero
+            return pool.invoke(new DigitRangeTask(from, from * base));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Analyzes the packed values in [from, to) that pass `checkedNumber`.
+    private class DigitRangeTask extends RecursiveTask<KaprekarAggregate> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        DigitRangeTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected KaprekarAggregate compute() {
+            if (to - from <= LEAF_RANGE) {
+                KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+                Function<int[], KaprekarResult> analyzer = analyzers.get();
+                for (long value = from; value < to; value++) {
+                    int[] digits = o7_16_2025.longToPaddedDigits(value, n, base);
+                    if (o7_16_2025.checkedNumber(digits, base)) {
+                        aggregate.add(analyzer.apply(digits));
+                    }
+                }
+                return aggregate;
+            }
+
+            long middle = from + (to - from) / 2;
+            DigitRangeTask left = new DigitRangeTask(from, middle);
+            DigitRangeTask right = new DigitRangeTask(middle, to);
+            right.fork();
+            KaprekarAggregate aggregate = left.compute();
+            aggregate.merge(right.join());
+            return aggregate;
+        }
+    }
+
+    // Analyzes the multisets under a consecutive run of prefixes.
+    private class MultisetTask extends RecursiveTask<KaprekarAggregate> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<int[]> prefixes;
+
+        MultisetTask(List<int[]> prefixes) {
+            this.prefixes = prefixes;
+        }
+
+        @Override
+        protected KaprekarAggregate compute() {
+            if (prefixes.size() == 1) {
+                KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+                Function<int[], KaprekarResult> analyzer = analyzers.get();
+                MultisetEnumerator.forEachMultiset(n, base, prefixes.get(0),
+                        (descendingDigits, weight) -> o7_16_2025.analyzeMultiset(descendingDigits, weight, base, analyzer, aggregate));
+                return aggregate;
+            }
+
+            int middle = prefixes.size() / 2;
+            MultisetTask left = new MultisetTask(new ArrayList<>(prefixes.subList(0, middle)));
+            MultisetTask right = new MultisetTask(new ArrayList<>(prefixes.subList(middle, prefixes.size())));
+            right.fork();
+            KaprekarAggregate aggregate = left.compute();
+            aggregate.merge(right.join());
+            return aggregate;
+        }
+    }
+} // End of class ParallelSweep
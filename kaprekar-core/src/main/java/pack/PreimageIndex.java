@@ -0,0 +1,288 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reverse Kaprekar graph of one (n, base) configuration: for every packed value, the values whose
+// step lands on it. It is stored in CSR form, two primitive arrays with the preimages of value v at
+// preimages[offsets[v] .. offsets[v + 1]), and built from the forward step function in two linear
+// passes (count, then fill). Because every value has exactly one successor, the reverse graph seen
+// from an attractor is a forest, and a breadth-first search from the attractor's elements visits
+// each value of the basin once, at the depth the forward analysis reports as its iterations.
+// Queries therefore cost time proportional to the part of the basin they cover, not to base^n.
+// The index is immutable once built and may be shared between threads.
+public final class PreimageIndex {
+    // Values stepped together while building
+    private static final int BLOCK = 1024;
+
+    private final int n;
+    private final int base;
+    private final int size;
+    // Smallest value without a leading zero, and 11...1 in this base (repdigits are its multiples)
+    private final long firstValid;
+    private final long repunit;
+
+    private final int[] offsets;
+    private final int[] preimages;
+
+    // How many valid starting numbers reach one attractor, in total and per depth
+    public static final class Basin {
+        private final List<int[]> attractor;
+        private final long[] depthHistogram;
+        private final long size;
+
+        Basin(List<int[]> attractor, long[] depthHistogram) {
+            this.attractor = attractor;
+            this.depthHistogram = depthHistogram;
+            long total = 0;
+            for (long count : depthHistogram) {
+                total += count;
+            }
+            this.size = total;
+        }
+
+        // The attractor's elements in cycle order; a fixed point has one element
+        public List<int[]> getAttractor() {
+            return attractor;
+        }
+
+        // Valid starting numbers that reach the attractor, the attractor's own elements included
+        public long getSize() {
+            return size;
+        }
+
+        // Index k counts the valid starting numbers that reach the attractor after exactly k steps
+        public long[] getDepthHistogram() {
+            return depthHistogram.clone();
+        }
+
+        public int getMaxDepth() {
+            return depthHistogram.length - 1;
+        }
+    }
+
+    private PreimageIndex(int n, int base, int size, int[] offsets, int[] preimages) {
+        this.n = n;
+        this.base = base;
+        this.size = size;
+        this.offsets = offsets;
+        this.preimages = preimages;
+        this.firstValid = size / base;
+        this.repunit = (size - 1) / (base - 1);
+    }
+
+    /**
+     * Builds the index of a configuration. The finished index takes 8 bytes of heap per value, but
+     * the build also holds every value's successor, so it peaks at 12 bytes per value (about 1.5 GiB
+     * at DenseKaprekarTable.MAX_VALUES). It is limited to the configurations a DenseKaprekarTable
+     * accepts.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The index.
+     * @throws IllegalArgumentException if base^n is above DenseKaprekarTable.MAX_VALUES.
+     */
+    public static PreimageIndex build(int n, int base) {
+        if (!DenseKaprekarTable.fits(n, base)) {
+            throw new IllegalArgumentException(n + "-digit numbers in Base " + base + " are too many for a preimage index");
+        }
+        int size = 1;
+        for (int i = 0; i < n; i++) {
+            size *= base;
+        }
+
+        int[] successors = new int[size];
+        BatchKaprekarKernel kernel = BatchKaprekarKernel.create(n, base, BLOCK);
+        for (int first = 0; first < size; first += BLOCK) {
+            int count = Math.min(BLOCK, size - first);
+            kernel.loadRange(first, count);
+            kernel.step(count);
+            kernel.storePacked(successors, first, count);
+        }
+
+        // offsets[v] counts v's preimages, then becomes the end of its run, then (after the
+        // descending fill) its start; each run ends up in ascending order
+        int[] offsets = new int[size + 1];
+        for (int value = 0; value < size; value++) {
+            offsets[successors[value]]++;
+        }
+        for (int value = 1; value < size; value++) {
+            offsets[value] += offsets[value - 1];
+        }
+        offsets[size] = size;
+        int[] preimages = new int[size];
+        for (int value = size - 1; value >= 0; value--) {
+            preimages[--offsets[successors[value]]] = value;
+        }
+        return new PreimageIndex(n, base, size, offsets, preimages);
+    }
+
+    /**
+     * Lists the values that step directly to a value, valid starting numbers or not.
+     * @param digits The value's n digits.
+     * @return The preimages' digits in ascending order.
+     */
+    public List<int[]> preimagesOf(int[] digits) {
+        int value = toValue(digits);
+        List<int[]> result = new ArrayList<>(offsets[value + 1] - offsets[value]);
+        for (int i = offsets[value]; i < offsets[value + 1]; i++) {
+            result.add(o7_16_2025.longToPaddedDigits(preimages[i], n, base));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the basin of an attractor: how many valid starting numbers reach it, at each depth.
+     * @param attractorElement Any element of a fixed point or cycle, e.g. from a KaprekarAggregate.
+     * @return The basin.
+     * @throws IllegalArgumentException if the value does not lie on a fixed point or cycle.
+     */
+    public Basin basin(int[] attractorElement) {
+        int[] attractor = attractorOf(toValue(attractorElement));
+        long[][] histogram = {new long[8]};
+        int[] maxDepth = {0};
+        breadthFirst(attractor, Integer.MAX_VALUE, (depth, value) -> {
+            if (isValid(value)) {
+                if (depth >= histogram[0].length) {
+                    histogram[0] = Arrays.copyOf(histogram[0], histogram[0].length * 2);
+                }
+                histogram[0][depth]++;
+                maxDepth[0] = Math.max(maxDepth[0], depth);
+            }
+        });
+        // Deeper levels may hold only invalid values (leading zeros or repdigits), which are not counted
+        long[] depthHistogram = Arrays.copyOf(histogram[0], maxDepth[0] + 1);
+
+        List<int[]> elements = new ArrayList<>(attractor.length);
+        for (int value : attractor) {
+            elements.add(o7_16_2025.longToPaddedDigits(value, n, base));
+        }
+        return new Basin(elements, depthHistogram);
+    }
+
+    /**
+     * Computes the basin of every attractor an analysis found.
+     * @param aggregate The aggregate of a full sweep of this configuration.
+     * @return The basins, fixed points first, then cycles, each in ascending order.
+     */
+    public List<Basin> basins(KaprekarAggregate aggregate) {
+        List<Basin> basins = new ArrayList<>();
+        for (int[] finalNumber : aggregate.getUniqueFinalNumbers()) {
+            basins.add(basin(finalNumber));
+        }
+        for (UniqueCycleRepresenter cycle : aggregate.getUniqueCycles()) {
+            basins.add(basin(cycle.getCanonicalElement()));
+        }
+        return basins;
+    }
+
+    /**
+     * Feeds the valid starting numbers that reach an attractor after exactly `depth` steps to a
+     * consumer. Only the basin's first `depth` levels are searched.
+     * @param attractorElement Any element of a fixed point or cycle.
+     * @param depth The number of steps.
+     * @param consumer Receives each starting number's digits, in no particular order.
+     * @throws IllegalArgumentException if the value does not lie on a fixed point or cycle.
+     */
+    public void forEachAtDepth(int[] attractorElement, int depth, Consumer<int[]> consumer) {
+        int[] attractor = attractorOf(toValue(attractorElement));
+        breadthFirst(attractor, depth, (valueDepth, value) -> {
+            if (valueDepth == depth && isValid(value)) {
+                consumer.accept(o7_16_2025.longToPaddedDigits(value, n, base));
+            }
+        });
+    }
+
+    // Receives each value reached by breadthFirst together with its depth
+    private interface DepthVisitor {
+        void visit(int depth, int value);
+    }
+
+    /**
+     * Visits the attractor's elements at depth 0 and then their preimages level by level, up to
+     * maxDepth. Preimages that lie on the attractor itself are skipped, which leaves a forest,
+     * so no visited set is needed.
+     */
+    private void breadthFirst(int[] attractor, int maxDepth, DepthVisitor visitor) {
+        int[] frontier = attractor.clone();
+        int frontierSize = frontier.length;
+        for (int value : attractor) {
+            visitor.visit(0, value);
+        }
+        for (int depth = 1; depth <= maxDepth && frontierSize > 0; depth++) {
+            int nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                nextSize += offsets[frontier[i] + 1] - offsets[frontier[i]];
+            }
+            int[] next = new int[nextSize];
+            nextSize = 0;
+            for (int i = 0; i < frontierSize; i++) {
+                for (int j = offsets[frontier[i]]; j < offsets[frontier[i] + 1]; j++) {
+                    int value = preimages[j];
+                    if (depth == 1 && contains(attractor, value)) {
+                        continue;
+                    }
+                    next[nextSize++] = value;
+                    visitor.visit(depth, value);
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+        }
+    }
+
+    /**
+     * Lists the attractor a value lies on, by stepping forward until the value comes back.
+     * @return The attractor's elements in cycle order, starting with the value.
+     */
+    private int[] attractorOf(int value) {
+        int[] counts = new int[base];
+        int[] elements = new int[4];
+        int length = 0;
+        int current = value;
+        do {
+            if (length == elements.length) {
+                elements = Arrays.copyOf(elements, length * 2);
+            }
+            elements[length++] = current;
+            current = (int) KaprekarKernel.step(current, n, base, counts);
+            // Every trajectory ends in a cycle, so this only stops early for values off the cycle
+            if (length > size || (current != value && contains(elements, length, current))) {
+                throw new IllegalArgumentException(
+                        o7_16_2025.arrayToStringWithBaseDigits(o7_16_2025.longToPaddedDigits(value, n, base), base)
+                                + " does not lie on a fixed point or cycle");
+            }
+        } while (current != value);
+        return Arrays.copyOf(elements, length);
+    }
+
+    private static boolean contains(int[] values, int value) {
+        return contains(values, values.length, value);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isValid(int value) {
+        return n > 1 && value >= firstValid && value % repunit != 0;
+    }
+
+    private int toValue(int[] digits) {
+        if (digits.length != n) {
+            throw new IllegalArgumentException("Expected " + n + " digits, got " + digits.length + ".");
+        }
+        for (int digit : digits) {
+            if (digit < 0 || digit >= base) {
+                throw new IllegalArgumentException("Digit " + digit + " is out of range for Base " + base + ".");
+            }
+        }
+        return (int) o7_16_2025.digitsToLong(digits, base);
+    }
+} // End of class PreimageIndex
@@ -0,0 +1,76 @@
+package pack;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Keeps completed sweeps on disk, one memory-mapped file per (n, base), so that repeating a
+// configuration loads its aggregate instead of recomputing it. Every engine and enumeration mode
+// sweeps to the same aggregate, iteration histogram and cycle rotations included, so neither is
+// part of the key; a change that breaks this must bump FORMAT_VERSION.
+//
+// File layout (big-endian):
+//   int  magic     "KPRK"
+//   int  version   FORMAT_VERSION; files from other versions are stale and get rebuilt
+//   int  n
+//   int  base
+//   long body length in bytes
+//   long CRC32 of the body
+//   body           KaprekarAggregate.writeTo()
+// A file whose header or checksum does not match is treated as missing, see ChecksummedFile.
+class ResultStore {
+    private static final int MAGIC = 0x4B50524B; // "KPRK"
+    static final int FORMAT_VERSION = 1;
+    private static final ChecksummedFile FORMAT = new ChecksummedFile(MAGIC, FORMAT_VERSION, 4 + 4, "result file");
+
+    private final Path directory;
+
+    /**
+     * @param directory Where the files live; it is created on the first save.
+     */
+    public ResultStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the file that holds the results for one configuration.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The path, whether or not the file exists.
+     */
+    public Path fileFor(int n, int base) {
+        return directory.resolve("kaprekar-n" + n + "-base" + base + ".bin");
+    }
+
+    /**
+     * Loads the stored aggregate for one configuration.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return The aggregate, or null if there is no usable file. Corrupt and stale files are reported
+     *         on standard error and otherwise treated as missing, so the caller recomputes and saves over them.
+     */
+    public KaprekarAggregate load(int n, int base) {
+        Path file = fileFor(n, base);
+        return FORMAT.read(file, n, base,
+                key -> key.getInt() != n || key.getInt() != base ? "written for a different configuration" : null,
+                reason -> discard(file, reason));
+    }
+
+    /**
+     * Saves an aggregate, replacing any earlier file for its configuration. The file is written
+     * under a temporary name and then moved into place, so readers never see a half-written file.
+     * @param aggregate The complete aggregate of a sweep.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(KaprekarAggregate aggregate) throws IOException {
+        Files.createDirectories(directory);
+        FORMAT.write(fileFor(aggregate.getN(), aggregate.getBase()), key -> {
+            key.putInt(aggregate.getN());
+            key.putInt(aggregate.getBase());
+        }, aggregate);
+    }
+
+    private static void discard(Path file, String reason) {
+        System.err.println("Ignoring stored results in " + file + " (" + reason + "); they will be recomputed.");
+    }
+} // End of class ResultStore
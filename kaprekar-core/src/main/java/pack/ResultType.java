@@ -0,0 +1,6 @@
+package pack;
+
+// How a Kaprekar sequence ends: at a fixed point (FINAL) or in a cycle of two or more values.
+public enum ResultType {
+    FINAL, CYCLE
+} // End of enum ResultType
@@ -0,0 +1,247 @@
+package pack;
+
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Estimates what a sweep reports from uniformly drawn valid numbers, for configurations with far
+// too many numbers to enumerate. The leading digit is drawn from 1 .. base - 1 and every other digit
+// from 0 .. base - 1, and repdigits are drawn again, so every number that passes `checkedNumber`
+// is equally likely. Any number of digits works, since nothing is counted per value.
+//
+// Samples are drawn in fixed-size batches. Batch k gets the k-th SplittableRandom split off the
+// seed's generator, batches run on `parallelism` threads, and finished batches are merged into one
+// KaprekarAggregate in batch order. After each merge the stopping rule looks at that aggregate
+// only, so with a precision target or a sample limit the estimate depends on the seed alone and
+// not on the parallelism or on timing; batches drawn past the stopping point are discarded. A time
+// budget stops at whatever batch is being merged when it runs out.
+//
+// Each attractor's share of the numbers is a binomial proportion. Estimate reports it with a Wilson
+// score interval, which stays inside [0, 1] and is reasonable for shares close to 0 or 1, where the
+// normal approximation is not.
+class SampledSweep {
+    // Samples drawn by one task; also how often the stopping rule is checked
+    static final int BATCH_SIZE = 1 << 10;
+    // Two-sided 95% quantile of the standard normal distribution
+    static final double Z_95 = 1.959963984540054;
+
+    // Why sampling stopped
+    enum StopReason { PRECISION, SAMPLE_LIMIT, TIME_BUDGET }
+
+    private final int n;
+    private final int base;
+    private final int parallelism;
+
+    // One analyzer per worker thread, as in ParallelSweep
+    private final ThreadLocal<Function<int[], KaprekarResult>> analyzers;
+
+    /**
+     * @param n The number of digits; at least 2, since a single digit is never valid.
+     * @param base The base of the number system.
+     * @param engine How the sampled numbers are analyzed; each worker thread gets its own instance.
+     * @param parallelism The number of worker threads; 1 samples on the calling thread.
+     * @throws IllegalArgumentException if n is below 2 or the base is not between 2 and 36.
+     */
+    SampledSweep(int n, int base, AnalysisEngine engine, int parallelism) {
+        if (n < 2) {
+            throw new IllegalArgumentException("Sampling needs at least 2 digits, since single digits are never valid");
+        }
+        if (base < 2 || base > 36) {
+            throw new IllegalArgumentException("Base must be between 2 and 36 (inclusive)");
+        }
+        this.n = n;
+        this.base = base;
+        this.parallelism = parallelism;
+        this.analyzers = ThreadLocal.withInitial(() -> SweepMetrics.instrument(engine.newAnalyzer(n, base)));
+    }
+
+    /**
+     * Samples until every share is known to the target precision, the sample limit is reached or
+     * the deadline passes, whichever comes first.
+     * @param seed The seed; the same seed, precision and limit always give the same estimate.
+     * @param precision The largest 95% interval half-width, as a fraction, of any share
+     *                  (see Estimate.getMaxHalfWidth), or 0 to stop only on the limit or the deadline.
+     * @param maxSamples The most numbers to draw, or Long.MAX_VALUE for no limit.
+     * @param deadlineNanos The System.nanoTime() after which sampling stops, or Long.MAX_VALUE for none.
+     * @return The estimate over the numbers drawn.
+     * @throws IllegalArgumentException if there is neither a positive precision, a limit nor a deadline.
+     */
+    Estimate run(long seed, double precision, long maxSamples, long deadlineNanos) {
+        if (!(precision > 0) && maxSamples == Long.MAX_VALUE && deadlineNanos == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Sampling needs a precision, a sample limit or a time budget to stop");
+        }
+        SplittableRandom seeds = new SplittableRandom(seed);
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+
+        if (parallelism == 1) {
+            long drawn = 0;
+            while (true) {
+                if (drawn == maxSamples) {
+                    return new Estimate(aggregate, seed, StopReason.SAMPLE_LIMIT);
+                }
+                int size = (int) Math.min(BATCH_SIZE, maxSamples - drawn);
+                KaprekarAggregate batch = sampleBatch(seeds.split(), size, deadlineNanos);
+                if (batch == null) {
+                    return new Estimate(aggregate, seed, StopReason.TIME_BUDGET);
+                }
+                aggregate.merge(batch);
+                drawn += size;
+                if (precision > 0 && maxHalfWidth(aggregate) <= precision) {
+                    return new Estimate(aggregate, seed, StopReason.PRECISION);
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Enough batches in flight to keep every thread busy while the oldest one is merged
+            ArrayDeque<Future<KaprekarAggregate>> pending = new ArrayDeque<>();
+            long submitted = 0;
+            while (true) {
+                while (pending.size() < 2 * parallelism && submitted < maxSamples) {
+                    int size = (int) Math.min(BATCH_SIZE, maxSamples - submitted);
+                    SplittableRandom random = seeds.split();
+                    pending.add(pool.submit(() -> sampleBatch(random, size, deadlineNanos)));
+                    submitted += size;
+                }
+                if (pending.isEmpty()) {
+                    return new Estimate(aggregate, seed, StopReason.SAMPLE_LIMIT);
+                }
+                KaprekarAggregate batch;
+                try {
+                    batch = pending.remove().get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while sampling", e);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Sampling failed for " + n + "-digit numbers in Base " + base,
+                            e.getCause());
+                }
+                if (batch == null) {
+                    return new Estimate(aggregate, seed, StopReason.TIME_BUDGET);
+                }
+                aggregate.merge(batch);
+                if (precision > 0 && maxHalfWidth(aggregate) <= precision) {
+                    return new Estimate(aggregate, seed, StopReason.PRECISION);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Draws and analyzes one batch of valid numbers.
+     * @param random The batch's own generator.
+     * @param size The number of samples.
+     * @param deadlineNanos The System.nanoTime() after which the batch is abandoned, or Long.MAX_VALUE for none.
+     * @return The aggregate of the batch, or null if the deadline passed first.
+     */
+    private KaprekarAggregate sampleBatch(SplittableRandom random, int size, long deadlineNanos) {
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        Function<int[], KaprekarResult> analyzer = analyzers.get();
+        for (int i = 0; i < size; i++) {
+            if ((i & 0x3F) == 0 && deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+                return null;
+            }
+            // The result keeps its initial number, so every sample needs its own array
+            int[] digits = new int[n];
+            do {
+                digits[0] = 1 + random.nextInt(base - 1);
+                for (int position = 1; position < n; position++) {
+                    digits[position] = random.nextInt(base);
+                }
+            } while (!o7_16_2025.checkedNumber(digits, base));
+            aggregate.add(analyzer.apply(digits));
+        }
+        return aggregate;
+    }
+
+    /**
+     * Computes the widest 95% interval among the shares of the final numbers, the cycles and all
+     * cycles together.
+     * @param aggregate The samples so far.
+     * @return The largest half-width, as a fraction; 1 if there are no samples.
+     */
+    static double maxHalfWidth(KaprekarAggregate aggregate) {
+        long samples = aggregate.getTotalCheckedNumbers();
+        if (samples == 0) {
+            return 1;
+        }
+        double widest = halfWidth(aggregate.getTotalNumbersConvergedToCycles(), samples);
+        for (long count : aggregate.getFinalNumberCounts()) {
+            widest = Math.max(widest, halfWidth(count, samples));
+        }
+        for (UniqueCycleRepresenter cycle : aggregate.getUniqueCycles()) {
+            widest = Math.max(widest, halfWidth(cycle.getCount(), samples));
+        }
+        return widest;
+    }
+
+    /**
+     * Computes the Wilson score interval of a binomial proportion at 95% confidence.
+     * @param successes The samples with the property.
+     * @param samples All samples; positive.
+     * @return The lower and upper bound, as fractions.
+     */
+    static double[] wilsonInterval(long successes, long samples) {
+        double share = (double) successes / samples;
+        double z2 = Z_95 * Z_95;
+        double denominator = 1 + z2 / samples;
+        double center = (share + z2 / (2.0 * samples)) / denominator;
+        double half = Z_95 / denominator * Math.sqrt(share * (1 - share) / samples + z2 / (4.0 * samples * samples));
+        return new double[] {Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    private static double halfWidth(long successes, long samples) {
+        double[] interval = wilsonInterval(successes, samples);
+        return (interval[1] - interval[0]) / 2;
+    }
+
+    // The outcome of a sampled sweep: an aggregate over the drawn numbers, whose counts divided by
+    // the sample count estimate the shares that a full sweep would report.
+    static final class Estimate {
+        private final KaprekarAggregate aggregate;
+        private final long seed;
+        private final StopReason stopReason;
+
+        Estimate(KaprekarAggregate aggregate, long seed, StopReason stopReason) {
+            this.aggregate = aggregate;
+            this.seed = seed;
+            this.stopReason = stopReason;
+        }
+
+        // The drawn numbers' results; getTotalCheckedNumbers() is the sample count
+        public KaprekarAggregate getAggregate() {
+            return aggregate;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public StopReason getStopReason() {
+            return stopReason;
+        }
+
+        public long getSamples() {
+            return aggregate.getTotalCheckedNumbers();
+        }
+
+        /**
+         * @param count How many samples reached an attractor (or any cycle).
+         * @return The 95% Wilson interval of the share, as fractions; see `wilsonInterval`.
+         */
+        public double[] interval(long count) {
+            return wilsonInterval(count, getSamples());
+        }
+
+        // The largest half-width of any reported share, as a fraction
+        public double getMaxHalfWidth() {
+            return maxHalfWidth(aggregate);
+        }
+    }
+} // End of class SampledSweep
@@ -0,0 +1,271 @@
+package pack;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Sweeps one configuration in several local worker processes.
+// The configuration is cut into the chunks of CheckpointedSweep (numbers sharing their leading
+// digits, or multisets sharing their top-digit counts), and shard k of K takes the k-th of K
+// consecutive runs of chunks. A worker is this program started with --shard k/K: it sweeps its
+// run in enumeration order and writes the partial aggregate to a file. The coordinator starts one
+// worker per shard, restarts the ones that fail, and merges the partial aggregates in shard order,
+// which is enumeration order, so the report is identical to that of a single-process sweep.
+// Partial files are deleted once merged; one left behind by an interrupted coordinator is reused
+// by the next run over the same directory instead of being swept again.
+//
+// Partial file layout (big-endian):
+//   int  magic        "KPSH"
+//   int  version      FORMAT_VERSION
+//   int  n
+//   int  base
+//   int  mode         0 for digit arrays, 1 for multisets
+//   int  shard
+//   int  shards
+//   long chunk count  of the whole configuration
+//   long body length in bytes
+//   long CRC32 of the body
+//   body              KaprekarAggregate.writeTo()
+class ShardedSweep {
+    private static final int MAGIC = 0x4B505348; // "KPSH"
+    static final int FORMAT_VERSION = 1;
+    private static final ChecksummedFile FORMAT = new ChecksummedFile(MAGIC, FORMAT_VERSION, 5 * 4 + 8, "shard file");
+
+    static final int DEFAULT_RETRIES = 2;
+
+    private final Path directory;
+    private final int shards;
+    private final int retries;
+    private final AnalysisEngine engine;
+
+    /**
+     * @param directory Where workers write their partial files; it is created when needed.
+     * @param shards The number of worker processes per configuration.
+     * @param retries How many times a failed shard is restarted before the sweep gives up.
+     * @param engine How the workers analyze single numbers.
+     */
+    public ShardedSweep(Path directory, int shards, int retries, AnalysisEngine engine) {
+        this.directory = directory;
+        this.shards = shards;
+        this.retries = retries;
+        this.engine = engine;
+    }
+
+    /**
+     * Returns the partial file of one shard.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether the sweep walks digit multisets.
+     * @param shard The shard, from 0 to shards - 1.
+     * @return The path, whether or not the file exists.
+     */
+    public Path fileFor(int n, int base, boolean useMultisetEnumeration, int shard) {
+        return directory.resolve("kaprekar-n" + n + "-base" + base
+                + (useMultisetEnumeration ? "-multisets" : "-digits") + "-shard" + shard + "of" + shards + ".part");
+    }
+
+    /**
+     * Sweeps a configuration in worker processes and merges their results.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param deadlineNanos The System.nanoTime() after which the workers are stopped, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number.
+     * @throws SweepTimeoutException if the deadline passed before every shard finished.
+     * @throws IllegalStateException if a shard still failed after its retries, or a worker could not be started.
+     */
+    public KaprekarAggregate run(int n, int base, boolean useMultisetEnumeration, long deadlineNanos) {
+        long chunkCount = CheckpointedSweep.chunksFor(n, base, useMultisetEnumeration).count();
+        KaprekarAggregate[] parts = new KaprekarAggregate[shards];
+        Process[] workers = new Process[shards];
+        int[] attempts = new int[shards];
+        try {
+            Files.createDirectories(directory);
+            for (int shard = 0; shard < shards; shard++) {
+                // A partial file left by an earlier, interrupted run is as good as a fresh one
+                parts[shard] = readPartial(fileFor(n, base, useMultisetEnumeration, shard), n, base,
+                        useMultisetEnumeration, shard, shards, chunkCount);
+                if (parts[shard] == null) {
+                    workers[shard] = launch(n, base, useMultisetEnumeration, shard);
+                    attempts[shard]++;
+                }
+            }
+
+            int running = countRunning(workers);
+            while (running > 0) {
+                if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() - deadlineNanos > 0) {
+                    throw new SweepTimeoutException();
+                }
+                for (int shard = 0; shard < shards; shard++) {
+                    Process worker = workers[shard];
+                    if (worker == null || !worker.waitFor(running == 1 ? 100 : 10, TimeUnit.MILLISECONDS)) {
+                        continue;
+                    }
+                    workers[shard] = null;
+                    Path file = fileFor(n, base, useMultisetEnumeration, shard);
+                    if (worker.exitValue() == 0) {
+                        parts[shard] = readPartial(file, n, base, useMultisetEnumeration, shard, shards, chunkCount);
+                    }
+                    if (parts[shard] != null) {
+                        continue;
+                    }
+                    String failure = String.format(Locale.ROOT, "Shard %d of %d for %d-digit numbers in Base %d failed (exit status %d)",
+                            shard, shards, n, base, worker.exitValue());
+                    if (attempts[shard] > retries) {
+                        throw new IllegalStateException(failure + " after " + attempts[shard] + " attempts.");
+                    }
+                    System.err.println(failure + "; restarting it.");
+                    workers[shard] = launch(n, base, useMultisetEnumeration, shard);
+                    attempts[shard]++;
+                }
+                running = countRunning(workers);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not start a shard worker for " + n + "-digit numbers in Base " + base, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shard workers", e);
+        } finally {
+            for (Process worker : workers) {
+                if (worker != null) {
+                    worker.destroyForcibly();
+                }
+            }
+        }
+
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        for (int shard = 0; shard < shards; shard++) {
+            aggregate.merge(parts[shard]);
+            try {
+                Files.deleteIfExists(fileFor(n, base, useMultisetEnumeration, shard));
+            } catch (IOException e) {
+                System.err.println("Warning: could not delete " + fileFor(n, base, useMultisetEnumeration, shard) + ": " + e);
+            }
+        }
+        return aggregate;
+    }
+
+    private static int countRunning(Process[] workers) {
+        int running = 0;
+        for (Process worker : workers) {
+            if (worker != null) {
+                running++;
+            }
+        }
+        return running;
+    }
+
+    /**
+     * Starts a worker for one shard: the same Java, JVM options and class path as this process.
+     */
+    private Process launch(int n, int base, boolean useMultisetEnumeration, int shard) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            // Heap size, system properties and modules carry over, but a debugger port cannot be shared
+            if (!argument.startsWith("-agentlib:jdwp") && !argument.startsWith("-Xrunjdwp")) {
+                command.add(argument);
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(o7_16_2025.class.getName());
+        command.add("--digits");
+        command.add(Integer.toString(n));
+        command.add("--bases");
+        command.add(Integer.toString(base));
+        if (useMultisetEnumeration) {
+            command.add("--multiset");
+        }
+        command.add("--engine");
+        command.add(engine.name());
+        command.add("--shard");
+        command.add(shard + "/" + shards);
+        command.add("--shard-file");
+        command.add(fileFor(n, base, useMultisetEnumeration, shard).toString());
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /**
+     * Sweeps one shard of a configuration on the calling thread; this is what a worker runs.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param shard The shard, from 0 to shards - 1.
+     * @param shards The number of shards.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over the shard's numbers.
+     * @throws SweepTimeoutException if the deadline passed before the shard finished.
+     */
+    static KaprekarAggregate sweepShard(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine,
+                                        int shard, int shards, long deadlineNanos) {
+        CheckpointedSweep.Chunks chunks = CheckpointedSweep.chunksFor(n, base, useMultisetEnumeration);
+        Function<int[], KaprekarResult> analyzer =
+                o7_16_2025.withDeadline(SweepMetrics.instrument(engine.newAnalyzer(n, base)), deadlineNanos);
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        long end = firstChunk(chunks.count(), shard + 1, shards);
+        for (long chunk = firstChunk(chunks.count(), shard, shards); chunk < end; chunk++) {
+            chunks.sweep(chunk, analyzer, aggregate);
+        }
+        return aggregate;
+    }
+
+    /**
+     * @return The first chunk of a shard; the runs differ in length by at most one chunk.
+     */
+    static long firstChunk(long chunkCount, int shard, int shards) {
+        return shard * (chunkCount / shards) + Math.min(shard, chunkCount % shards);
+    }
+
+    /**
+     * Writes a shard's partial aggregate.
+     * @param file The partial file, see `fileFor`.
+     * @param aggregate The aggregate returned by `sweepShard`.
+     * @param useMultisetEnumeration Whether the sweep walked digit multisets.
+     * @param shard The shard, from 0 to shards - 1.
+     * @param shards The number of shards.
+     * @throws IOException if the file cannot be written.
+     */
+    static void writePartial(Path file, KaprekarAggregate aggregate, boolean useMultisetEnumeration,
+                             int shard, int shards) throws IOException {
+        long chunkCount = CheckpointedSweep.chunksFor(aggregate.getN(), aggregate.getBase(), useMultisetEnumeration).count();
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        FORMAT.write(file.toAbsolutePath(), key -> {
+            key.putInt(aggregate.getN());
+            key.putInt(aggregate.getBase());
+            key.putInt(useMultisetEnumeration ? 1 : 0);
+            key.putInt(shard);
+            key.putInt(shards);
+            key.putLong(chunkCount);
+        }, aggregate);
+    }
+
+    /**
+     * Reads a partial file written for exactly this shard of this configuration.
+     * @return The shard's aggregate, or null if there is no usable file.
+     */
+    private static KaprekarAggregate readPartial(Path file, int n, int base, boolean useMultisetEnumeration,
+                                                 int shard, int shards, long chunkCount) {
+        return FORMAT.read(file, n, base,
+                key -> key.getInt() != n || key.getInt() != base || key.getInt() != (useMultisetEnumeration ? 1 : 0)
+                        || key.getInt() != shard || key.getInt() != shards || key.getLong() != chunkCount
+                        ? "written for a different configuration or sharding" : null,
+                reason -> discard(file, reason));
+    }
+
+    private static void discard(Path file, String reason) {
+        System.err.println("Ignoring shard file " + file + " (" + reason + "); the shard is swept again.");
+    }
+} // End of class ShardedSweep
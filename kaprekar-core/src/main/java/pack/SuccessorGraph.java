@@ -0,0 +1,191 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Memoized Kaprekar successor graph for one (n, base) configuration.
+// Every value that a walk visits becomes a node that remembers which attractor (fixed point or
+// cycle) it ends in, how many steps it takes to get there and which attractor element it reaches
+// first. A new walk stops at the first node that is already resolved and writes the outcome back
+// along its own path, so the total step work is linear in the number of distinct values instead
+// of in the sum of all trajectory lengths.
+class SuccessorGraph {
+    // Attractor id of a node that is on the path of the walk currently in progress.
+    private static final int IN_PROGRESS = -1;
+
+    private final int n;
+    private final int base;
+    private final KaprekarKernel kernel;
+
+    // Value -> node index
+    private final LongIntHashMap nodeIndex = new LongIntHashMap(1 << 16, -1);
+
+    // Per-node state, indexed by node index.
+    // While a walk is in progress, distances[] holds the node's position on the walk's path.
+    private int[] attractorIds = new int[1 << 16];
+    private int[] distances = new int[1 << 16];
+    private int[] entryOffsets = new int[1 << 16];
+    private int nodeCount = 0;
+
+    // Attractor elements in cycle order; fixed points are cycles of length 1.
+    private final List<long[]> attractors = new ArrayList<>();
+
+    // Values visited by the current walk, reused between walks.
+    private long[] path = new long[64];
+
+    public SuccessorGraph(int n, int base) {
+        this.n = n;
+        this.base = base;
+        this.kernel = new KaprekarKernel(n, base);
+    }
+
+    /**
+     * Analyzes the Kaprekar sequence of a number, reusing everything earlier walks resolved.
+     * Produces the same result as `o7_16_2025.analyzeKaprekarSequence`.
+     * Starting numbers only become nodes when they are also step results (or fixed points), so the
+     * graph grows with the image of the step function, not with the number of inputs analyzed.
+     * @param initialDigits The starting number's digits as an array.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    public KaprekarResult analyze(int[] initialDigits) {
+        long value = o7_16_2025.digitsToLong(initialDigits, base);
+        int node = nodeIndex.get(value);
+        if (node < 0) {
+            long next = kernel.step(value);
+            int successor = resolve(next);
+            // Resolving the successor adds the value itself if it lies on the successor's cycle
+            node = nodeIndex.get(value);
+            if (node < 0) {
+                return buildResult(initialDigits, attractorIds[successor], distances[successor] + 1, entryOffsets[successor]);
+            }
+        }
+        return buildResult(initialDigits, attractorIds[node], distances[node], entryOffsets[node]);
+    }
+
+    private KaprekarResult buildResult(int[] initialDigits, int attractorId, int iterations, int entry) {
+        long[] attractor = attractors.get(attractorId);
+        if (attractor.length == 1) {
+            return new KaprekarResult(initialDigits, o7_16_2025.longToPaddedDigits(attractor[0], n, base), iterations, base);
+        }
+
+        // The cycle is listed starting from the element the trajectory reaches first
+        List<int[]> cycleElements = new ArrayList<>(attractor.length);
+        for (int i = 0; i < attractor.length; i++) {
+            cycleElements.add(o7_16_2025.longToPaddedDigits(attractor[(entry + i) % attractor.length], n, base));
+        }
+        return new KaprekarResult(initialDigits, cycleElements, iterations, base);
+    }
+
+    /**
+     * Returns the node of a value, walking its trajectory until it meets a resolved node
+     * (or closes a new cycle) and resolving every node on the way.
+     * @param value The value to resolve.
+     * @return The node index of the value, with its attractor, distance and entry offset set.
+     */
+    int resolve(long value) {
+        int node = nodeIndex.get(value);
+        if (node >= 0) {
+            return node;
+        }
+
+        int pathLength = 0;
+        long current = value;
+        while (true) {
+            node = nodeIndex.get(current);
+            if (node < 0) {
+                // New value: put it on the path and keep walking
+                node = addNode(current);
+                attractorIds[node] = IN_PROGRESS;
+                distances[node] = pathLength;
+                if (pathLength == path.length) {
+                    path = Arrays.copyOf(path, pathLength * 2);
+                }
+                path[pathLength++] = current;
+                current = kernel.step(current);
+            } else if (attractorIds[node] == IN_PROGRESS) {
+                // The walk closed a new cycle starting at this node's path position
+                int cycleStart = distances[node];
+                long[] cycle = Arrays.copyOfRange(path, cycleStart, pathLength);
+                int attractorId = attractors.size();
+                attractors.add(cycle);
+                for (int i = cycleStart; i < pathLength; i++) {
+                    int cycleNode = nodeIndex.get(path[i]);
+                    attractorIds[cycleNode] = attractorId;
+                    distances[cycleNode] = 0;
+                    entryOffsets[cycleNode] = i - cycleStart;
+                }
+                writeBack(cycleStart - 1, nodeIndex.get(path[cycleStart]));
+                break;
+            } else {
+                // Reached a resolved node: every path value inherits its outcome
+                writeBack(pathLength - 1, node);
+                break;
+            }
+        }
+        return nodeIndex.get(value);
+    }
+
+    /**
+     * Resolves path[last], path[last - 1], ..., path[0] from the node each of them steps to.
+     * @param last The path position of the last unresolved value.
+     * @param successor The resolved node that path[last] steps to.
+     */
+    private void writeBack(int last, int successor) {
+        for (int i = last; i >= 0; i--) {
+            int node = nodeIndex.get(path[i]);
+            attractorIds[node] = attractorIds[successor];
+            distances[node] = distances[successor] + 1;
+            entryOffsets[node] = entryOffsets[successor];
+            successor = node;
+        }
+    }
+
+    private int addNode(long value) {
+        if (nodeCount == attractorIds.length) {
+            int capacity = nodeCount * 2;
+            attractorIds = Arrays.copyOf(attractorIds, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            entryOffsets = Arrays.copyOf(entryOffsets, capacity);
+        }
+        nodeIndex.put(value, nodeCount);
+        return nodeCount++;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @param node A resolved node index, e.g. from `resolve`.
+     * @return The id of the attractor the node ends in; ids count up from 0 in order of discovery.
+     */
+    int attractorIdOf(int node) {
+        return attractorIds[node];
+    }
+
+    /**
+     * @param node A resolved node index, e.g. from `resolve`.
+     * @return The number of steps from the node to the first attractor element it reaches; 0 on the attractor.
+     */
+    int distanceOf(int node) {
+        return distances[node];
+    }
+
+    /**
+     * @param attractorId An attractor id.
+     * @return The attractor's elements in cycle order; the array is shared, so do not modify it.
+     */
+    long[] attractorElements(int attractorId) {
+        return attractors.get(attractorId);
+    }
+
+    /**
+     * @param value A packed value.
+     * @return true if the value has been resolved and lies on a fixed point or cycle.
+     */
+    boolean isAttractorElement(long value) {
+        int node = nodeIndex.get(value);
+        return node >= 0 && attractorIds[node] >= 0 && distances[node] == 0;
+    }
+} // End of class SuccessorGraph
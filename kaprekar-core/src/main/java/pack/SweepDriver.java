@@ -0,0 +1,742 @@
+package pack;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Command-line front end that sweeps every combination of a range of digit counts and a range of
+// bases in one JVM, e.g.
+//     java -jar kaprekar-core.jar --digits 3..9 --bases 2..36 --time-budget 30
+// Configurations run cheapest first, so the small ones warm up the JIT and the shared binomial
+// table before the expensive ones start, and a configuration that runs out of its time budget is
+// skipped instead of holding up the rest. Reports are printed in schedule order.
+class SweepDriver {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: o7_16_2025 [options]",
+            "  --digits <list>        digit counts to sweep, e.g. 4, 3..9 or 3,5,7 (default 6)",
+            "  --bases <list>         bases to sweep, between 2 and 36, same syntax (default 10)",
+            "  --number <digits>      analyze just this number in each of --bases, of any length, in multiset space",
+            "  --multiset             analyze each digit multiset once instead of every digit array",
+            "  --grouped              multiset sweep that groups multisets by their first successor and resolves",
+            "                         each distinct successor once",
+            "  --verify               sweep every number of each configuration again from scratch and compare",
+            "                         the results, iteration histogram included",
+            "  --sample               estimate the shares from random valid numbers instead of sweeping them all,",
+            "                         with 95% confidence intervals; works for any number of digits",
+            "  --precision <points>   stop sampling once every share is within +/- this many percentage points",
+            "                         (default 0.5; 0 samples until --max-samples or --time-budget)",
+            "  --max-samples <k>      numbers drawn per configuration at most (default none)",
+            "  --seed <s>             seed of the random numbers; the same seed gives the same estimate (default random)",
+            "  --engine <name>        SEQUENCE_HISTORY, BRENT, SUCCESSOR_GRAPH, DENSE_TABLE or MULTISET_DYNAMICS",
+            "                         (default SUCCESSOR_GRAPH)",
+            "  --parallelism <k>      worker threads inside one configuration (default 1)",
+            "  --jobs <k>             configurations swept at the same time (default 1)",
+            "  --time-budget <secs>   give up on a configuration after this many seconds (default none)",
+            "  --store <dir>          load finished configurations from, and save new ones to, this directory",
+            "  --checkpoint <dir>     save the progress of each configuration to this directory while it runs",
+            "  --checkpoint-interval <secs>  time between two checkpoints (default 60)",
+            "  --resume               continue each configuration from its checkpoint, if there is one",
+            "  --shards <k>           sweep each configuration in k local worker processes and merge their results",
+            "                         (one thread each, so not with --parallelism)",
+            "  --shard-dir <dir>      where workers write their partial results (default a temporary directory);",
+            "                         partial results left there by an interrupted run are reused",
+            "  --shard-retries <k>    restarts of a failed worker before its configuration fails (default 2)",
+            "  --shard <i>/<k>        worker mode: sweep slice i of k of one configuration into --shard-file",
+            "  --shard-file <file>    where a worker writes its partial result",
+            "  --export <dir>         write the attractor and iteration count of every number of each configuration",
+            "                         to a columnar file <dir>/kaprekar-n<n>-base<base>.kpc instead of sweeping",
+            "  --basins               also print each attractor's basin size and depth profile (up to 2^27 values)",
+            "  --serve <port>         answer /analyze, /summary and /stats over HTTP on localhost instead of sweeping;",
+            "                         --jobs then limits concurrent summary sweeps (0 picks a free port)",
+            "  --cache-size <k>       summaries the server keeps in memory (default 64)",
+            "  --help                 print this message");
+
+    // Values a --digits or --bases list may hold; far more than can be swept, but a typo such as
+    // 3..300000000 fails at once instead of filling the heap with configurations
+    private static final int MAX_LIST_VALUES = 10_000;
+
+    // One (n, base) pair to sweep
+    private static final class Configuration {
+        final int n;
+        final int base;
+        final long cost;
+
+        Configuration(int n, int base, long cost) {
+            this.n = n;
+            this.base = base;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * Parses the arguments, sweeps every requested configuration and prints the reports.
+     * @param args The command-line arguments.
+     * @param out Where to print the reports and any usage message.
+     * @return The process exit status: 0 on success, 1 if interrupted, a sweep failed or a shard worker could
+     *         not write its result, 2 if the arguments could not be parsed, 3 if --verify found a configuration
+     *         that differs from its cold full sweep.
+     */
+    static int run(String[] args, PrintStream out) {
+        List<Integer> digitCounts = List.of(6);
+        List<Integer> bases = List.of(10);
+        boolean useMultisetEnumeration = false;
+        String number = null;
+        boolean grouped = false;
+        boolean verify = false;
+        boolean sample = false;
+        double precision = 0.005;
+        long maxSamples = Long.MAX_VALUE;
+        Long seed = null;
+        AnalysisEngine engine = AnalysisEngine.SUCCESSOR_GRAPH;
+        int parallelism = 1;
+        int jobs = 1;
+        long timeBudgetNanos = Long.MAX_VALUE;
+        ResultStore store = null;
+        String checkpointDirectory = null;
+        double checkpointInterval = CheckpointedSweep.DEFAULT_INTERVAL_SECONDS;
+        boolean resume = false;
+        boolean basins = false;
+        String exportDirectory = null;
+        int shards = 0;
+        String shardDirectory = null;
+        int shardRetries = ShardedSweep.DEFAULT_RETRIES;
+        int shard = -1;
+        int shardCount = 0;
+        String shardFile = null;
+        int servePort = -1;
+        int cacheSize = 64;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--digits":
+                        digitCounts = parseList(value(args, ++i), "--digits");
+                        break;
+                    case "--bases":
+                        bases = parseList(value(args, ++i), "--bases");
+                        break;
+                    case "--multiset":
+                        useMultisetEnumeration = true;
+                        break;
+                    case "--number":
+                        number = value(args, ++i);
+                        break;
+                    case "--grouped":
+                        grouped = true;
+                        break;
+                    case "--verify":
+                        verify = true;
+                        break;
+                    case "--sample":
+                        sample = true;
+                        break;
+                    case "--precision":
+                        precision = Double.parseDouble(value(args, ++i)) / 100;
+                        if (!(precision >= 0 && precision < 1)) {
+                            throw new IllegalArgumentException("--precision must be between 0 and 100 percentage points");
+                        }
+                        break;
+                    case "--max-samples":
+                        maxSamples = Long.parseLong(value(args, ++i));
+                        if (maxSamples <= 0) {
+                            throw new IllegalArgumentException("--max-samples must be positive");
+                        }
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value(args, ++i));
+                        break;
+                    case "--engine":
+                        engine = AnalysisEngine.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                        break;
+                    case "--parallelism":
+                        parallelism = parsePositive(value(args, ++i), "--parallelism");
+                        break;
+                    case "--jobs":
+                        jobs = parsePositive(value(args, ++i), "--jobs");
+                        break;
+                    case "--time-budget":
+                        double seconds = Double.parseDouble(value(args, ++i));
+                        if (!(seconds > 0)) {
+                            throw new IllegalArgumentException("--time-budget must be positive");
+                        }
+                        timeBudgetNanos = (long) Math.min(seconds * 1e9, Long.MAX_VALUE - 1);
+                        break;
+                    case "--store":
+                        store = new ResultStore(Paths.get(value(args, ++i)));
+                        break;
+                    case "--checkpoint":
+                        checkpointDirectory = value(args, ++i);
+                        break;
+                    case "--checkpoint-interval":
+                        checkpointInterval = Double.parseDouble(value(args, ++i));
+                        if (!(checkpointInterval >= 0)) {
+                            throw new IllegalArgumentException("--checkpoint-interval must not be negative");
+                        }
+                        break;
+                    case "--resume":
+                        resume = true;
+                        break;
+                    case "--export":
+                        exportDirectory = value(args, ++i);
+                        break;
+                    case "--basins":
+                        basins = true;
+                        break;
+                    case "--shards":
+                        shards = parsePositive(value(args, ++i), "--shards");
+                        break;
+                    case "--shard-dir":
+                        shardDirectory = value(args, ++i);
+                        break;
+                    case "--shard-retries":
+                        shardRetries = Integer.parseInt(value(args, ++i));
+                        if (shardRetries < 0) {
+                            throw new IllegalArgumentException("--shard-retries must not be negative");
+                        }
+                        break;
+                    case "--shard":
+                        String slice = value(args, ++i);
+                        int slash = slice.indexOf('/');
+                        if (slash < 0) {
+                            throw new IllegalArgumentException("--shard needs <i>/<k>, e.g. 0/4");
+                        }
+                        shard = Integer.parseInt(slice.substring(0, slash).trim());
+                        shardCount = parsePositive(slice.substring(slash + 1).trim(), "--shard count");
+                        if (shard < 0 || shard >= shardCount) {
+                            throw new IllegalArgumentException("--shard index must be between 0 and " + (shardCount - 1));
+                        }
+                        break;
+                    case "--shard-file":
+                        shardFile = value(args, ++i);
+                        break;
+                    case "--serve":
+                        servePort = Integer.parseInt(value(args, ++i));
+                        if (servePort < 0 || servePort > 65535) {
+                            throw new IllegalArgumentException("--serve needs a port between 0 and 65535");
+                        }
+                        break;
+                    case "--cache-size":
+                        cacheSize = parsePositive(value(args, ++i), "--cache-size");
+                        break;
+                    case "--help":
+                        out.println(USAGE);
+                        return 0;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (resume && checkpointDirectory == null) {
+                throw new IllegalArgumentException("--resume needs --checkpoint");
+            }
+            if (grouped && checkpointDirectory != null) {
+                throw new IllegalArgumentException("--grouped does not checkpoint");
+            }
+            if (grouped && parallelism > 1) {
+                throw new IllegalArgumentException("--grouped sweeps each configuration on one thread; use --jobs instead");
+            }
+            if (shards > 0 && (grouped || parallelism > 1 || checkpointDirectory != null)) {
+                throw new IllegalArgumentException("--shards cannot be combined with --grouped, --parallelism or --checkpoint");
+            }
+            if (sample && (useMultisetEnumeration || grouped || verify || basins || shards > 0
+                    || checkpointDirectory != null || store != null)) {
+                throw new IllegalArgumentException("--sample cannot be combined with --multiset, --grouped, --verify, "
+                        + "--basins, --shards, --checkpoint or --store");
+            }
+            if (sample && precision == 0 && maxSamples == Long.MAX_VALUE && timeBudgetNanos == Long.MAX_VALUE) {
+                throw new IllegalArgumentException("--precision 0 needs --max-samples or --time-budget");
+            }
+            if (exportDirectory != null && (sample || shards > 0 || grouped || checkpointDirectory != null)) {
+                throw new IllegalArgumentException("--export cannot be combined with --sample, --shards, --grouped "
+                        + "or --checkpoint");
+            }
+            if (shard >= 0 && (shardFile == null || digitCounts.size() != 1 || bases.size() != 1)) {
+                throw new IllegalArgumentException("--shard needs --shard-file and a single digit count and base");
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and unknown engine names land here too
+            out.println("Error: " + e.getMessage());
+            out.println(USAGE);
+            return 2;
+        }
+        if (number != null) {
+            return analyzeNumber(number, bases, out);
+        }
+        if (exportDirectory != null) {
+            return export(digitCounts, bases, Paths.get(exportDirectory), timeBudgetNanos, out);
+        }
+        if (sample) {
+            return sample(digitCounts, bases, engine, parallelism, timeBudgetNanos,
+                    seed != null ? seed : new SplittableRandom().nextLong(), precision, maxSamples, out);
+        }
+        if (shard >= 0) {
+            return sweepShard(digitCounts.get(0), bases.get(0), useMultisetEnumeration, engine, shard, shardCount,
+                    Paths.get(shardFile));
+        }
+        if (servePort >= 0) {
+            return serve(servePort, engine, parallelism, jobs, cacheSize, timeBudgetNanos, store, out);
+        }
+        CheckpointedSweep checkpoints = checkpointDirectory == null ? null : new CheckpointedSweep(
+                Paths.get(checkpointDirectory), (long) Math.min(checkpointInterval * 1e9, Long.MAX_VALUE), resume);
+        Path temporaryShardDirectory = null;
+        ShardedSweep sharded = null;
+        if (shards > 0) {
+            try {
+                if (shardDirectory == null) {
+                    temporaryShardDirectory = Files.createTempDirectory("kaprekar-shards");
+                }
+            } catch (IOException e) {
+                out.println("Error: could not create a directory for shard results: " + e);
+                return 1;
+            }
+            sharded = new ShardedSweep(shardDirectory != null ? Paths.get(shardDirectory) : temporaryShardDirectory,
+                    shards, shardRetries, engine);
+        }
+
+        List<Configuration> schedule = new ArrayList<>();
+        for (int n : digitCounts) {
+            for (int base : bases) {
+                schedule.add(new Configuration(n, base, cost(n, base, useMultisetEnumeration || grouped)));
+            }
+        }
+        // Stable, so equal costs keep the order they were given in
+        schedule.sort(Comparator.comparingLong(configuration -> configuration.cost));
+
+        final boolean multiset = useMultisetEnumeration;
+        final boolean groupedMultisets = grouped;
+        final boolean verifyReports = verify;
+        final AtomicInteger mismatches = new AtomicInteger();
+        final AnalysisEngine chosenEngine = engine;
+        final int threads = parallelism;
+        final long budget = timeBudgetNanos;
+        final ResultStore resultStore = store;
+        final CheckpointedSweep checkpointedSweep = checkpoints;
+        final boolean printBasins = basins;
+        final ShardedSweep shardedSweep = sharded;
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, schedule.size()));
+        int skipped = 0;
+        int failed = 0;
+        try {
+            List<Future<String>> reports = new ArrayList<>();
+            for (Configuration configuration : schedule) {
+                reports.add(executor.submit(() -> sweep(configuration, multiset, groupedMultisets, shardedSweep, chosenEngine,
+                        threads, budget, resultStore, checkpointedSweep, printBasins, verifyReports ? mismatches : null)));
+            }
+            for (int i = 0; i < schedule.size(); i++) {
+                String report;
+                try {
+                    report = reports.get(i).get();
+                } catch (ExecutionException e) {
+                    // Report the configuration and carry on with the others
+                    failed++;
+                    out.println("Error: the sweep of " + schedule.get(i).n + "-digit numbers in Base "
+                            + schedule.get(i).base + " failed: " + e.getCause());
+                    out.println();
+                    continue;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return 1;
+                }
+                if (o7_16_2025.checkConfiguration(schedule.get(i).n, schedule.get(i).base) != null) {
+                    // The report is just the error message
+                    skipped++;
+                    out.print(report);
+                } else if (report == null) {
+                    skipped++;
+                    out.println("Skipped " + schedule.get(i).n + "-digit numbers in Base " + schedule.get(i).base
+                            + ": exceeded the time budget of " + budget / 1e9 + " s."
+                            + (checkpoints != null ? " Its progress was checkpointed for --resume." : ""));
+                    out.println();
+                } else {
+                    out.print(report);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            if (temporaryShardDirectory != null) {
+                try {
+                    Files.deleteIfExists(temporaryShardDirectory);
+                } catch (IOException e) {
+                    // Not empty after a failed shard; leave it for inspection
+                }
+            }
+        }
+
+        out.printf(Locale.ROOT, "Swept %d of %d configurations in %.1f s.%n",
+                schedule.size() - skipped - failed, schedule.size(), (System.nanoTime() - start) / 1e9);
+        if (failed > 0) {
+            out.println(failed + " configurations failed.");
+            return 1;
+        }
+        if (mismatches.get() > 0) {
+            out.println(mismatches.get() + " configurations differ from their cold sweep.");
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Prints the outcome of one number in each base, following digit-count vectors so that the
+     * number may have hundreds of digits.
+     * @param number The number's digits as text, in any of the bases.
+     * @param bases The bases to read it in.
+     * @param out Where to print the results.
+     * @return The process exit status: 0 on success, 2 if the number is not valid in one of the bases.
+     */
+    private static int analyzeNumber(String number, List<Integer> bases, PrintStream out) {
+        ConsoleReport report = new ConsoleReport(out);
+        for (int base : bases) {
+            int[] digits = new int[number.length()];
+            for (int i = 0; i < digits.length; i++) {
+                digits[i] = base >= 2 && base <= 36 ? Character.digit(number.charAt(i), base) : -1;
+                if (digits[i] < 0) {
+                    out.println("Error: '" + number.charAt(i) + "' is not a digit in Base " + base + ".");
+                    return 2;
+                }
+            }
+            if (digits.length == 0) {
+                out.println("Error: --number needs at least one digit.");
+                return 2;
+            }
+            report.printResult(KaprekarAnalyzer.analyzeNumber(digits, base), base);
+        }
+        return 0;
+    }
+
+    /**
+     * Estimates each configuration from random numbers, in the order the configurations were given.
+     * @param digitCounts The digit counts to sample.
+     * @param bases The bases to sample.
+     * @param engine How the sampled numbers are analyzed.
+     * @param parallelism Worker threads inside one configuration.
+     * @param timeBudgetNanos How long one configuration may sample, or Long.MAX_VALUE for no limit.
+     * @param seed The seed of every configuration.
+     * @param precision The target interval half-width, as a fraction, or 0 for none.
+     * @param maxSamples The most numbers drawn per configuration, or Long.MAX_VALUE for no limit.
+     * @param out Where to print the estimates.
+     * @return The process exit status: 0 on success.
+     */
+    private static int sample(List<Integer> digitCounts, List<Integer> bases, AnalysisEngine engine, int parallelism,
+                              long timeBudgetNanos, long seed, double precision, long maxSamples, PrintStream out) {
+        long start = System.nanoTime();
+        int sampled = 0;
+        for (int n : digitCounts) {
+            for (int base : bases) {
+                SampledSweep sweep;
+                try {
+                    sweep = new SampledSweep(n, base, engine, parallelism);
+                } catch (IllegalArgumentException e) {
+                    out.println("Error: " + e.getMessage() + ".");
+                    out.println();
+                    continue;
+                }
+                long deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+                new ConsoleReport(out).printEstimate(sweep.run(seed, precision, maxSamples, deadline), precision);
+                out.println();
+                sampled++;
+            }
+        }
+        out.printf(Locale.ROOT, "Sampled %d of %d configurations in %.1f s.%n",
+                sampled, digitCounts.size() * bases.size(), (System.nanoTime() - start) / 1e9);
+        return 0;
+    }
+
+    /**
+     * Writes the columnar export of each configuration, in the order the configurations were given.
+     * @param digitCounts The digit counts to export.
+     * @param bases The bases to export.
+     * @param directory Where the files go; created if missing.
+     * @param timeBudgetNanos How long one configuration may take, or Long.MAX_VALUE for no limit.
+     * @param out Where to print what was written.
+     * @return The process exit status: 0 on success, 1 if a file could not be written.
+     */
+    private static int export(List<Integer> digitCounts, List<Integer> bases, Path directory, long timeBudgetNanos,
+                              PrintStream out) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            out.println("Error: could not create " + directory + ": " + e);
+            return 1;
+        }
+        long start = System.nanoTime();
+        int exported = 0;
+        for (int n : digitCounts) {
+            for (int base : bases) {
+                String error = o7_16_2025.checkConfiguration(n, base);
+                if (error == null && !KaprekarKernel.fitsInLong(n, base)) {
+                    error = "Error: " + n + "-digit numbers in Base " + base + " are too wide to export.";
+                }
+                if (error != null) {
+                    out.println(error);
+                    continue;
+                }
+                Path file = ColumnarExport.fileFor(directory, n, base);
+                long deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+                try {
+                    ColumnarExport.write(file, n, base, deadline);
+                    try (ColumnarExport.Reader reader = ColumnarExport.Reader.open(file)) {
+                        long bytes = Files.size(file);
+                        out.printf(Locale.ROOT, "Exported %d %d-digit numbers in Base %d to %s: %d bytes (%.3f per number), "
+                                        + "%d attractors, %d blocks.%n", reader.getRowCount(), n, base, file, bytes,
+                                reader.getRowCount() == 0 ? 0.0 : (double) bytes / reader.getRowCount(),
+                                reader.getAttractorCount(), reader.getBlockCount());
+                    }
+                    exported++;
+                } catch (SweepTimeoutException e) {
+                    out.println("Skipped " + n + "-digit numbers in Base " + base + ": exceeded the time budget of "
+                            + timeBudgetNanos / 1e9 + " s.");
+                } catch (IOException e) {
+                    out.println("Error: could not write " + file + ": " + e);
+                    return 1;
+                }
+            }
+        }
+        out.printf(Locale.ROOT, "Exported %d of %d configurations in %.1f s.%n",
+                exported, digitCounts.size() * bases.size(), (System.nanoTime() - start) / 1e9);
+        return 0;
+    }
+
+    /**
+     * Worker side of --shards: sweeps one shard of a configuration and writes its partial result.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param shard The shard, from 0 to shards - 1.
+     * @param shards The number of shards.
+     * @param file Where to write the partial result.
+     * @return The process exit status: 0 once the file is written, 1 if it could not be, 2 for an invalid configuration.
+     */
+    private static int sweepShard(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine,
+                                  int shard, int shards, Path file) {
+        // The coordinator discards a worker's standard output, so errors go to standard error
+        String error = o7_16_2025.checkConfiguration(n, base);
+        if (error != null) {
+            System.err.println(error);
+            return 2;
+        }
+        KaprekarAggregate aggregate = ShardedSweep.sweepShard(n, base, useMultisetEnumeration, engine, shard, shards,
+                Long.MAX_VALUE);
+        try {
+            ShardedSweep.writePartial(file, aggregate, useMultisetEnumeration, shard, shards);
+        } catch (IOException e) {
+            System.err.println("Error: could not write " + file + ": " + e);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Runs a KaprekarServer until the JVM is shut down.
+     * @param port The port, or 0 for any free port.
+     * @param engine How summaries are swept.
+     * @param parallelism Worker threads inside one summary sweep.
+     * @param jobs Summary sweeps that may run at the same time.
+     * @param cacheSize How many summaries the server keeps.
+     * @param timeBudgetNanos How long one summary sweep may take, or Long.MAX_VALUE for no limit.
+     * @param store Where finished sweeps are kept, or null.
+     * @param out Where to print the address.
+     * @return The process exit status: 1 if the port could not be bound or the wait was interrupted.
+     */
+    private static int serve(int port, AnalysisEngine engine, int parallelism, int jobs, int cacheSize,
+                             long timeBudgetNanos, ResultStore store, PrintStream out) {
+        KaprekarServer server;
+        try {
+            server = new KaprekarServer(port, engine, parallelism, jobs, cacheSize, timeBudgetNanos, store);
+        } catch (IOException e) {
+            out.println("Error: cannot listen on port " + port + ": " + e.getMessage());
+            return 1;
+        }
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        out.println("Serving on http://127.0.0.1:" + server.getPort() + "/ (analyze, summary, stats)");
+        out.flush();
+        try {
+            server.awaitStop();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            server.stop();
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Sweeps one configuration and renders what the single-configuration run would print.
+     * @param configuration The configuration to sweep.
+     * @param useMultisetEnumeration Whether to walk digit multisets.
+     * @param grouped Whether to sweep with GroupedMultisetSweep, which overrides useMultisetEnumeration.
+     * @param sharded Sweeps the configuration in worker processes, or null to sweep it in this one.
+     * @param engine How single numbers are analyzed.
+     * @param parallelism Worker threads inside the configuration.
+     * @param timeBudgetNanos How long the sweep may take, or Long.MAX_VALUE for no limit.
+     * @param store Where finished configurations are kept, or null to always sweep.
+     * @param checkpoints Where configurations save their progress, or null for no checkpoints.
+     * @param basins Whether to follow the report with the basin of every attractor.
+     * @param mismatches Counts configurations whose cold full sweep gives other results, or null not to verify.
+     * @return The header and report, or null if the time budget ran out.
+     */
+    private static String sweep(Configuration configuration, boolean useMultisetEnumeration,
+                                boolean grouped, ShardedSweep sharded, AnalysisEngine engine,
+                                int parallelism, long timeBudgetNanos, ResultStore store,
+                                CheckpointedSweep checkpoints, boolean basins, AtomicInteger mismatches) {
+        int n = configuration.n;
+        int base = configuration.base;
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, false, StandardCharsets.UTF_8);
+
+        String error = o7_16_2025.checkConfiguration(n, base);
+        if (error != null) {
+            out.println(error);
+            out.println();
+        } else {
+            // The budget starts when the configuration does, not when it was queued
+            long deadline = timeBudgetNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + timeBudgetNanos;
+            boolean multiset = useMultisetEnumeration || grouped;
+            KaprekarAggregate aggregate;
+            try {
+                if (grouped) {
+                    aggregate = o7_16_2025.loadOrRun(store, n, base, () -> GroupedMultisetSweep.sweep(n, base, engine, deadline));
+                } else if (sharded != null) {
+                    aggregate = o7_16_2025.loadOrRun(store, n, base, () -> sharded.run(n, base, useMultisetEnumeration, deadline));
+                } else {
+                    aggregate = o7_16_2025.loadOrRunSweep(store, checkpoints, n, base, useMultisetEnumeration, engine, parallelism, deadline);
+                }
+            } catch (SweepTimeoutException e) {
+                return null;
+            }
+            ConsoleReport report = new ConsoleReport(out);
+            report.printHeader(n, base, multiset);
+            report.accept(aggregate);
+            if (mismatches != null) {
+                KaprekarAggregate cold;
+                try {
+                    // Every number, and never a resident table that the first sweep may have read
+                    cold = o7_16_2025.runSweep(n, base, false,
+                            engine == AnalysisEngine.DENSE_TABLE ? AnalysisEngine.SUCCESSOR_GRAPH : engine,
+                            parallelism, deadline);
+                } catch (SweepTimeoutException e) {
+                    return null;
+                }
+                if (aggregate.sameResults(cold)) {
+                    out.println("Verified against a cold full sweep.");
+                } else {
+                    mismatches.incrementAndGet();
+                    out.println("Error: the cold full sweep gives other results:");
+                    new ConsoleReport(out).accept(cold);
+                    out.println("Iteration histogram: " + Arrays.toString(aggregate.getIterationHistogram())
+                            + ", cold: " + Arrays.toString(cold.getIterationHistogram()));
+                }
+                out.println();
+            }
+            if (basins) {
+                if (DenseKaprekarTable.fits(n, base)) {
+                    report.printBasins(base, PreimageIndex.build(n, base).basins(aggregate));
+                } else {
+                    out.println("Basins are only computed for up to " + DenseKaprekarTable.MAX_VALUES + " values.");
+                }
+            }
+        }
+        out.flush();
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Estimates the work for one configuration as the number of analyses its sweep runs.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether the sweep walks digit multisets.
+     * @return The number of analyses, or Long.MAX_VALUE if it does not fit a long or the configuration is invalid.
+     */
+    private static long cost(int n, int base, boolean useMultisetEnumeration) {
+        if (o7_16_2025.checkConfiguration(n, base) != null) {
+            // Invalid configurations only print an error, but sort them last with the oversized ones
+            return Long.MAX_VALUE;
+        }
+        try {
+            return useMultisetEnumeration
+                    ? MultisetEnumerator.countMultisets(n, base)
+                    : MultisetEnumerator.countValidNumbers(n, base);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Parses a list like "4", "3..9" or "3,5,7..9".
+     * @param text The text to parse.
+     * @param option The option it belongs to, for error messages.
+     * @return The values in the order given.
+     * @throws IllegalArgumentException if a value is not an integer, a range is empty, or the list has
+     *         more than MAX_LIST_VALUES values.
+     */
+    private static List<Integer> parseList(String text, String option) {
+        List<Integer> values = new ArrayList<>();
+        for (String part : text.split(",")) {
+            int range = part.indexOf("..");
+            if (range < 0) {
+                if (values.size() == MAX_LIST_VALUES) {
+                    throw new IllegalArgumentException(option + " lists more than " + MAX_LIST_VALUES + " values");
+                }
+                values.add(Integer.parseInt(part.trim()));
+                continue;
+            }
+            int from = Integer.parseInt(part.substring(0, range).trim());
+            int to = Integer.parseInt(part.substring(range + 2).trim());
+            if (from > to) {
+                throw new IllegalArgumentException(option + " range " + part + " is empty");
+            }
+            if ((long) to - from + 1 > MAX_LIST_VALUES - values.size()) {
+                throw new IllegalArgumentException(option + " lists more than " + MAX_LIST_VALUES + " values");
+            }
+            for (int value = from; value <= to; value++) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Parses a strictly positive integer.
+     * @param text The text to parse.
+     * @param option The option it belongs to, for error messages.
+     * @return The value.
+     */
+    private static int parsePositive(String text, String option) {
+        int value = Integer.parseInt(text);
+        if (value < 1) {
+            throw new IllegalArgumentException(option + " must be at least 1");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the value following an option.
+     * @param args The command-line arguments.
+     * @param index The index the value should be at.
+     * @return The value.
+     */
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+} // End of class SweepDriver
@@ -0,0 +1,285 @@
+package pack;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Process-wide counters for sweeps: kernel steps, trajectories and their lengths, history-scan
+// comparisons, aggregated numbers and the time spent in each phase. Every counter is a LongAdder,
+// which stripes its updates across cells, so parallel workers do not contend on one cache line.
+//
+// Collection is off unless the JVM is started with -Dkaprekar.metrics=true (or with
+// -Dkaprekar.progress=<seconds>, which prints a progress line to standard error at that interval).
+// ENABLED is a static final, so with metrics off the JIT removes every `if (SweepMetrics.ENABLED)`
+// block and the kernels run exactly as before. When on, the counters are published over JMX as
+// pack:type=SweepMetrics.
+final class SweepMetrics implements SweepMetricsMXBean {
+    private static final double PROGRESS_SECONDS = parseProgressSeconds(System.getProperty("kaprekar.progress"));
+    static final boolean ENABLED = Boolean.getBoolean("kaprekar.metrics") || PROGRESS_SECONDS > 0;
+
+    // Trajectories of this many steps or more share the last histogram bucket
+    static final int HISTOGRAM_BUCKETS = 64;
+
+    // Where sweep time goes. ANALYSIS and AGGREGATION add up the time of every worker thread, so
+    // with one thread SWEEP - ANALYSIS - AGGREGATION is the time spent generating numbers.
+    enum Phase {
+        SWEEP, ANALYSIS, AGGREGATION, MERGE, TABLE_BUILD, STORE_IO, CHECKPOINT_IO
+    }
+
+    private static final LongAdder kernelSteps = new LongAdder();
+    private static final LongAdder trajectories = new LongAdder();
+    private static final LongAdder[] stepsPerTrajectory = newAdders(HISTOGRAM_BUCKETS + 1);
+    private static final LongAdder cycleScanComparisons = new LongAdder();
+    private static final LongAdder numbersAggregated = new LongAdder();
+    private static final LongAdder[] phaseNanos = newAdders(Phase.values().length);
+    private static volatile long startNanos = System.nanoTime();
+
+    private static ScheduledExecutorService progressPrinter;
+
+    private SweepMetrics() {
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Parses the progress interval. This runs in the static initializer, where an exception would
+     * make the class unusable, so a malformed value only turns the progress line off. The line is
+     * scheduled in whole milliseconds, so shorter positive intervals are raised to one millisecond.
+     * @param value The value of -Dkaprekar.progress, or null if it is not set.
+     * @return The interval in seconds, at least 0.001, or 0 for no progress line.
+     */
+    static double parseProgressSeconds(String value) {
+        if (value == null) {
+            return 0;
+        }
+        double seconds;
+        try {
+            seconds = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            seconds = Double.NaN;
+        }
+        if (!(seconds >= 0) || Double.isInfinite(seconds)) {
+            System.err.println("Warning: ignoring -Dkaprekar.progress=" + value
+                    + "; it must be a non-negative number of seconds.");
+            return 0;
+        }
+        return seconds > 0 ? Math.max(seconds, 0.001) : 0;
+    }
+
+    /**
+     * Registers the JMX bean and starts the progress line if they are enabled. Safe to call more than once.
+     */
+    static synchronized void start() {
+        if (!ENABLED) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName("pack:type=SweepMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new SweepMetrics(), name);
+            }
+        } catch (JMException e) {
+            System.err.println("Warning: could not register the metrics bean: " + e);
+        }
+        if (PROGRESS_SECONDS > 0 && progressPrinter == null) {
+            progressPrinter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kaprekar-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = (long) (PROGRESS_SECONDS * 1000);
+            progressPrinter.scheduleAtFixedRate(() -> System.err.println(progressLine()), period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the progress line, if it is running.
+     */
+    static synchronized void stop() {
+        if (progressPrinter != null) {
+            progressPrinter.shutdownNow();
+            progressPrinter = null;
+        }
+    }
+
+    /**
+     * Wraps an analyzer so that it counts trajectories and their lengths and times the analysis.
+     * @param analyzer The analyzer to wrap.
+     * @return The wrapped analyzer, or `analyzer` itself when metrics are off.
+     */
+    static Function<int[], KaprekarResult> instrument(Function<int[], KaprekarResult> analyzer) {
+        if (!ENABLED) {
+            return analyzer;
+        }
+        return digits -> {
+            long start = System.nanoTime();
+            KaprekarResult result = analyzer.apply(digits);
+            addPhase(Phase.ANALYSIS, System.nanoTime() - start);
+            addTrajectories(result, 1);
+            return result;
+        };
+    }
+
+    /**
+     * Counts trajectories that share one outcome, for sweeps that analyze a number on behalf of others.
+     * @param result The outcome; its iterations and attractor length give the trajectory's steps.
+     * @param count How many numbers have exactly this trajectory length.
+     */
+    static void addTrajectories(KaprekarResult result, long count) {
+        int attractorLength = result.getType() == ResultType.FINAL ? 1 : result.getCycleElements().size();
+        trajectories.add(count);
+        stepsPerTrajectory[Math.min(result.getIterations() + attractorLength, HISTOGRAM_BUCKETS)].add(count);
+    }
+
+    static void addKernelStep() {
+        kernelSteps.increment();
+    }
+
+    static void addKernelSteps(long steps) {
+        kernelSteps.add(steps);
+    }
+
+    static void addCycleScanComparisons(long comparisons) {
+        cycleScanComparisons.add(comparisons);
+    }
+
+    static void addNumbersAggregated(long numbers) {
+        numbersAggregated.add(numbers);
+    }
+
+    static void addPhase(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()].add(nanos);
+    }
+
+    static String progressLine() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long numbers = numbersAggregated.sum();
+        return String.format(Locale.ROOT, "[progress] %.0f s: %,d numbers (%,.0f/s), %,d trajectories, %,d kernel steps",
+                seconds, numbers, numbers / Math.max(seconds, 1e-9), trajectories.sum(), kernelSteps.sum());
+    }
+
+    /**
+     * Prints every counter, for the end of a run.
+     * @param out Where to print.
+     */
+    static void printSummary(PrintStream out) {
+        out.println("--- Sweep Metrics ---");
+        out.println(progressLine());
+        out.printf(Locale.ROOT, "Cycle-scan comparisons: %,d%n", cycleScanComparisons.sum());
+        StringBuilder histogram = new StringBuilder("Steps per trajectory:");
+        for (int i = 0; i <= HISTOGRAM_BUCKETS; i++) {
+            long count = stepsPerTrajectory[i].sum();
+            if (count != 0) {
+                histogram.append(' ').append(i).append(i == HISTOGRAM_BUCKETS ? "+" : "").append('=').append(count);
+            }
+        }
+        out.println(histogram);
+        for (Phase phase : Phase.values()) {
+            out.printf(Locale.ROOT, "%s: %.3f s%n", phase, phaseNanos[phase.ordinal()].sum() / 1e9);
+        }
+    }
+
+    // --- SweepMetricsMXBean ---
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getKernelSteps() {
+        return kernelSteps.sum();
+    }
+
+    @Override
+    public long getTrajectories() {
+        return trajectories.sum();
+    }
+
+    @Override
+    public long[] getStepsPerTrajectoryHistogram() {
+        long[] histogram = new long[HISTOGRAM_BUCKETS + 1];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = stepsPerTrajectory[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public long getCycleScanComparisons() {
+        return cycleScanComparisons.sum();
+    }
+
+    @Override
+    public long getNumbersAggregated() {
+        return numbersAggregated.sum();
+    }
+
+    @Override
+    public double getNumbersPerSecond() {
+        return numbersAggregated.sum() / Math.max((System.nanoTime() - startNanos) / 1e9, 1e-9);
+    }
+
+    @Override
+    public long getSweepNanos() {
+        return phaseNanos[Phase.SWEEP.ordinal()].sum();
+    }
+
+    @Override
+    public long getAnalysisNanos() {
+        return phaseNanos[Phase.ANALYSIS.ordinal()].sum();
+    }
+
+    @Override
+    public long getAggregationNanos() {
+        return phaseNanos[Phase.AGGREGATION.ordinal()].sum();
+    }
+
+    @Override
+    public long getMergeNanos() {
+        return phaseNanos[Phase.MERGE.ordinal()].sum();
+    }
+
+    @Override
+    public long getTableBuildNanos() {
+        return phaseNanos[Phase.TABLE_BUILD.ordinal()].sum();
+    }
+
+    @Override
+    public long getStoreNanos() {
+        return phaseNanos[Phase.STORE_IO.ordinal()].sum();
+    }
+
+    @Override
+    public long getCheckpointNanos() {
+        return phaseNanos[Phase.CHECKPOINT_IO.ordinal()].sum();
+    }
+
+    @Override
+    public void reset() {
+        kernelSteps.reset();
+        trajectories.reset();
+        for (LongAdder adder : stepsPerTrajectory) {
+            adder.reset();
+        }
+        cycleScanComparisons.reset();
+        numbersAggregated.reset();
+        for (LongAdder adder : phaseNanos) {
+            adder.reset();
+        }
+        startNanos = System.nanoTime();
+    }
+} // End of class SweepMetrics
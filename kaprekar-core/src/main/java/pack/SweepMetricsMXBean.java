@@ -0,0 +1,36 @@
+package pack;
+
+// JMX view of SweepMetrics, registered as pack:type=SweepMetrics. Times are in nanoseconds and
+// counters are totals since the JVM started or since the last reset().
+public interface SweepMetricsMXBean {
+    boolean isEnabled();
+
+    long getKernelSteps();
+
+    long getTrajectories();
+
+    // Index i counts the trajectories with i steps before reaching a repeat; the last index is "or more"
+    long[] getStepsPerTrajectoryHistogram();
+
+    long getCycleScanComparisons();
+
+    long getNumbersAggregated();
+
+    double getNumbersPerSecond();
+
+    long getSweepNanos();
+
+    long getAnalysisNanos();
+
+    long getAggregationNanos();
+
+    long getMergeNanos();
+
+    long getTableBuildNanos();
+
+    long getStoreNanos();
+
+    long getCheckpointNanos();
+
+    void reset();
+} // End of interface SweepMetricsMXBean
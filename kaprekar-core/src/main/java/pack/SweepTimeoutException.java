@@ -0,0 +1,10 @@
+package pack;
+
+// Thrown out of a sweep whose time budget ran out (see o7_16_2025.withDeadline).
+class SweepTimeoutException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public SweepTimeoutException() {
+        super("Sweep exceeded its time budget");
+    }
+} // End of class SweepTimeoutException
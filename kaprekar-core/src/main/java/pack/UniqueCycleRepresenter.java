@@ -0,0 +1,92 @@
+package pack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Represents a unique cycle for aggregation, comparing cycles by their canonical element.
+public class UniqueCycleRepresenter {
+    // Canonical representation: the cycle's smallest element. Cycles of the Kaprekar map are
+    // disjoint, so two cycles are the same exactly when their smallest elements are equal.
+    // This makes comparison order-independent without building any strings.
+    private int[] canonicalElement;
+    
+    // An example of the actual cycle elements, needed for displaying.
+    private List<int[]> exampleCycleElements; 
+    
+    // How many distinct initial numbers lead to this unique cycle.
+    private long count; 
+    private int base; // Store the base for correct display in toString()
+
+    public UniqueCycleRepresenter(List<int[]> cycleElements, int base) { // Base added to constructor
+        this.base = base; // Initialize base
+        this.canonicalElement = canonicalElement(cycleElements).clone();
+        this.exampleCycleElements = new ArrayList<>();
+        for (int[] element : cycleElements) {
+            this.exampleCycleElements.add(element.clone());
+        }
+        this.count = 0; 
+    }
+
+    /**
+     * Finds the smallest element of a cycle. Digit arrays of equal length compare
+     * lexicographically in the same order as the numbers they represent.
+     * @param cycleElements The cycle's elements, in any rotation.
+     * @return The smallest element (not a copy).
+     */
+    public static int[] canonicalElement(List<int[]> cycleElements) {
+        int[] smallest = cycleElements.get(0);
+        for (int[] element : cycleElements) {
+            if (Arrays.compare(element, smallest) < 0) {
+                smallest = element;
+            }
+        }
+        return smallest;
+    }
+
+    public void incrementCount() {
+        this.count++;
+    }
+
+    public void addCount(long amount) {
+        this.count += amount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public List<int[]> getExampleCycleElements() {
+        return exampleCycleElements;
+    }
+
+    public int[] getCanonicalElement() {
+        return canonicalElement;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UniqueCycleRepresenter that = (UniqueCycleRepresenter) o;
+        return Arrays.equals(canonicalElement, that.canonicalElement); 
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(canonicalElement); 
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Cycle: [");
+        for (int i = 0; i < exampleCycleElements.size(); i++) {
+            sb.append(o7_16_2025.arrayToStringWithBaseDigits(exampleCycleElements.get(i), base)); // Use custom display
+            if (i < exampleCycleElements.size() - 1) {
+                sb.append(" -> ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+} // End of class UniqueCycleRepresenter
@@ -0,0 +1,58 @@
+package pack;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// BatchKaprekarKernel with explicit SIMD from jdk.incubator.vector: every compare-exchange of the
+// sorting network is one vector min and one vector max over SPECIES.length() lanes, and the
+// subtraction keeps each vector's borrow in a register from the least significant position to the
+// most significant. Lanes after the last full vector take the scalar path.
+// Only BatchKaprekarKernel.create() instantiates this class, and only when the module is present.
+final class VectorBatchKaprekarKernel extends BatchKaprekarKernel {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    VectorBatchKaprekarKernel(int n, int base, int capacity) {
+        super(n, base, capacity);
+    }
+
+    @Override
+    void step(int count) {
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelSteps(count);
+        }
+        int vectorEnd = SPECIES.loopBound(count);
+        for (int lane = 0; lane < vectorEnd; lane += SPECIES.length()) {
+            stepVector(lane);
+        }
+        if (vectorEnd < count) {
+            stepLanes(vectorEnd, count);
+        }
+    }
+
+    private void stepVector(int lane) {
+        for (int p = 0; p < n; p++) {
+            IntVector.fromArray(SPECIES, digits[p], lane).intoArray(sorted[p], lane);
+        }
+        for (int c = 0; c < network.length; c += 2) {
+            int[] low = sorted[network[c]];
+            int[] high = sorted[network[c + 1]];
+            IntVector a = IntVector.fromArray(SPECIES, low, lane);
+            IntVector b = IntVector.fromArray(SPECIES, high, lane);
+            a.min(b).intoArray(low, lane);
+            a.max(b).intoArray(high, lane);
+        }
+
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector borrow = zero;
+        for (int p = n - 1; p >= 0; p--) {
+            IntVector difference = IntVector.fromArray(SPECIES, sorted[n - 1 - p], lane)
+                    .sub(IntVector.fromArray(SPECIES, sorted[p], lane))
+                    .sub(borrow);
+            VectorMask<Integer> negative = difference.compare(VectorOperators.LT, 0);
+            difference.add(base, negative).intoArray(digits[p], lane);
+            borrow = zero.blend(1, negative);
+        }
+    }
+} // End of class VectorBatchKaprekarKernel
@@ -0,0 +1,73 @@
+package pack;
+
+// Kaprekar step on digit arrays of any width.
+// Used when base^n does not fit in a long (for example N=20 in Base 10 or N=13 in Base 36), where
+// KaprekarKernel cannot pack a number. The digits are counted into a reusable histogram and the
+// subtraction is done digit by digit with a borrow, so nothing wider than an int is ever formed
+// and a step allocates nothing. Like KaprekarKernel, an instance is single-threaded.
+class WideKaprekarKernel {
+    private final int n;
+    private final int base;
+    private final int[] counts;
+    private final int[] ascending;
+
+    /**
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     */
+    public WideKaprekarKernel(int n, int base) {
+        this.n = n;
+        this.base = base;
+        this.counts = new int[base];
+        this.ascending = new int[n];
+    }
+
+    /**
+     * Computes the next number of the Kaprekar sequence.
+     * @param digits The current number's n digits, most significant first.
+     * @param result Receives the n digits of the next number; may be the same array as `digits`.
+     */
+    public void step(int[] digits, int[] result) {
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addKernelStep();
+        }
+        // Counting sort into increasing order
+        for (int i = 0; i < n; i++) {
+            counts[digits[i]]++;
+        }
+        int position = 0;
+        for (int digit = 0; digit < base; digit++) {
+            for (int c = counts[digit]; c > 0; c--) {
+                ascending[position++] = digit;
+            }
+            counts[digit] = 0;
+        }
+
+        // Decreasing order is the increasing order read backwards, so digit i of the minuend is
+        // ascending[n - 1 - i] and digit i of the subtrahend is ascending[i]
+        int borrow = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int difference = ascending[n - 1 - i] - ascending[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            result[i] = difference + borrow * base;
+        }
+    }
+
+    /**
+     * Subtracts two equal-length digit arrays with a borrow, most significant digit first.
+     * The minuend must not be smaller than the subtrahend, which always holds for a number's digits
+     * sorted in decreasing order minus the same digits sorted in increasing order.
+     * @param minuend The digits to subtract from.
+     * @param subtrahend The digits to subtract.
+     * @param base The base of the number system.
+     * @param result Receives the digits of the difference; may alias either input.
+     */
+    public static void subtractWithBorrow(int[] minuend, int[] subtrahend, int base, int[] result) {
+        int borrow = 0;
+        for (int i = minuend.length - 1; i >= 0; i--) {
+            int difference = minuend[i] - subtrahend[i] - borrow;
+            borrow = difference < 0 ? 1 : 0;
+            result[i] = difference + borrow * base;
+        }
+    }
+} // End of class WideKaprekarKernel
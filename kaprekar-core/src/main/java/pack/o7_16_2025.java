@@ -0,0 +1,808 @@
+//lines 32 and 33 change the number of digits and the base, lines 34 to 39 pick the enumeration mode, the analysis engine, the parallelism, the result store and checkpointing
+package pack;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// --- Main Class ---
+public class o7_16_2025 {
+
+    public static void main(String[] args) {
+        // JMX bean and progress line, when enabled with -Dkaprekar.metrics or -Dkaprekar.progress
+        SweepMetrics.start();
+        if (args.length > 0) {
+            // Command-line sweeps over ranges of digits and bases, e.g. --digits 3..9 --bases 2..36
+            int status = SweepDriver.run(args, System.out);
+            SweepMetrics.stop();
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.printSummary(System.err);
+            }
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
+
+        int n = 6; // Number of digits
+        int base = 10; // Set the base here (e.g., 2 for binary, 10 for decimal, 16 for hexadecimal, 36 for max)
+        boolean useMultisetEnumeration = false; // Analyze each digit multiset once instead of every digit array
+        AnalysisEngine engine = AnalysisEngine.SUCCESSOR_GRAPH; // How single numbers are analyzed (all engines give the same results)
+        int parallelism = 1; // Worker threads for the sweep; 1 runs it sequentially on the main thread
+        String storeDirectory = null; // Directory where completed sweeps are saved and reloaded, or null to always recompute
+        String checkpointDirectory = null; // Directory for periodic checkpoints of the sweep, or null for none
+        boolean resume = false; // Continue from the checkpoint in checkpointDirectory instead of starting over
+
+        String error = checkConfiguration(n, base);
+        if (error != null) {
+            System.out.println(error);
+            return;
+        }
+
+        ConsoleReport report = new ConsoleReport(System.out);
+        report.printHeader(n, base, useMultisetEnumeration);
+        ResultStore store = storeDirectory == null ? null : new ResultStore(Paths.get(storeDirectory));
+        CheckpointedSweep checkpoints = checkpointDirectory == null ? null : new CheckpointedSweep(
+                Paths.get(checkpointDirectory), (long) (CheckpointedSweep.DEFAULT_INTERVAL_SECONDS * 1e9), resume);
+        KaprekarAggregate aggregate = loadOrRunSweep(store, checkpoints, n, base, useMultisetEnumeration, engine,
+                parallelism, Long.MAX_VALUE);
+        report.accept(aggregate);
+        SweepMetrics.stop();
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.printSummary(System.err);
+        }
+    }
+
+    /**
+     * Validates a configuration before it is swept.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return An error message to print, or null if the configuration can be swept.
+     */
+    static String checkConfiguration(int n, int base) {
+        // Validate base range (2 to 36 inclusive)
+        if (base < 2 || base > 36) { // Reverted to allow bases > 10
+            return "Error: Base must be between 2 and 36 (inclusive).";
+        }
+        if (n < 1) {
+            return "Error: Number of digits (n) must be at least 1.";
+        }
+        try {
+            MultisetEnumerator.countValidNumbers(n, base);
+        } catch (ArithmeticException e) {
+            return "Error: There are too many " + n + "-digit numbers in Base " + base + " to count them in a long.";
+        }
+        return null;
+    }
+
+    /**
+     * Analyzes every valid n-digit number in a base and aggregates the outcomes, without printing.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param parallelism Worker threads for the sweep; 1 runs it on the calling thread.
+     * @return The aggregate over every valid number.
+     */
+    static KaprekarAggregate runSweep(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine, int parallelism) {
+        return runSweep(n, base, useMultisetEnumeration, engine, parallelism, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like `runSweep`, but gives up once a deadline has passed.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param parallelism Worker threads for the sweep; 1 runs it on the calling thread, as does a
+     *                    digit-space sweep of numbers too wide for a long.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number.
+     * @throws SweepTimeoutException if the deadline passed before the sweep finished.
+     */
+    static KaprekarAggregate runSweep(int n, int base, boolean useMultisetEnumeration, AnalysisEngine engine,
+                                      int parallelism, long deadlineNanos) {
+        if (engine == AnalysisEngine.DENSE_TABLE && DenseKaprekarTable.fits(n, base)) {
+            // The table already holds every outcome; whichever enumeration was asked for, the aggregate is the same
+            return DenseKaprekarTable.forConfiguration(n, base, deadlineNanos).aggregate();
+        }
+        // The parallel digit-space split works on ranges of packed values, so wider numbers are swept
+        // on the calling thread
+        if (parallelism > 1 && (useMultisetEnumeration || KaprekarKernel.fitsInLong(n, base))) {
+            return new ParallelSweep(n, base, useMultisetEnumeration, engine, parallelism, deadlineNanos).run();
+        }
+
+        if (!useMultisetEnumeration && engine == AnalysisEngine.SUCCESSOR_GRAPH && KaprekarKernel.fitsInLong(n, base)) {
+            // Same aggregate, but first successors come from a Gray code walk instead of sorting every number
+            return GrayCodeSweep.run(n, base, deadlineNanos);
+        }
+
+        KaprekarAggregate aggregate = new KaprekarAggregate(n, base);
+        Function<int[], KaprekarResult> analyzer = withDeadline(SweepMetrics.instrument(engine.newAnalyzer(n, base)), deadlineNanos);
+        if (useMultisetEnumeration) {
+            MultisetEnumerator.forEachMultiset(n, base,
+                    (descendingDigits, weight) -> analyzeMultiset(descendingDigits, weight, base, analyzer, aggregate));
+        } else {
+            // Numbers are generated and folded into the aggregate one at a time
+            forEachNumber(n, base, initialNumber -> aggregate.add(analyzer.apply(initialNumber)));
+        }
+        return aggregate;
+    }
+
+    /**
+     * Loads a configuration's aggregate from a result store, or sweeps it and saves the result
+     * there. A store that cannot be written only costs the saved time on the next run.
+     * @param store The result store, or null to always sweep.
+     * @param checkpoints Where the sweep saves its progress, or null to sweep without checkpoints.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param useMultisetEnumeration Whether to analyze each digit multiset once instead of every digit array.
+     * @param engine How single numbers are analyzed.
+     * @param parallelism Worker threads for the sweep; 1 runs it on the calling thread.
+     * @param deadlineNanos The System.nanoTime() after which the sweep stops, or Long.MAX_VALUE for none.
+     * @return The aggregate over every valid number.
+     * @throws SweepTimeoutException if the sweep ran and the deadline passed before it finished.
+     */
+    static KaprekarAggregate loadOrRunSweep(ResultStore store, CheckpointedSweep checkpoints, int n, int base,
+                                            boolean useMultisetEnumeration, AnalysisEngine engine, int parallelism,
+                                            long deadlineNanos) {
+        return loadOrRun(store, n, base, () -> checkpoints != null
+                ? checkpoints.run(n, base, useMultisetEnumeration, engine, parallelism, deadlineNanos)
+                : runSweep(n, base, useMultisetEnumeration, engine, parallelism, deadlineNanos));
+    }
+
+    /**
+     * Loads a configuration's aggregate from a result store, or computes it with the given sweep
+     * and saves the result there.
+     * @param store The result store, or null to always sweep.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param sweep Computes the aggregate when the store does not have it.
+     * @return The aggregate over every valid number.
+     */
+    static KaprekarAggregate loadOrRun(ResultStore store, int n, int base, Supplier<KaprekarAggregate> sweep) {
+        long start = System.nanoTime();
+        if (store != null) {
+            KaprekarAggregate stored = store.load(n, base);
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addPhase(SweepMetrics.Phase.STORE_IO, System.nanoTime() - start);
+            }
+            if (stored != null) {
+                return stored;
+            }
+        }
+
+        start = System.nanoTime();
+        KaprekarAggregate aggregate = sweep.get();
+        if (SweepMetrics.ENABLED) {
+            SweepMetrics.addPhase(SweepMetrics.Phase.SWEEP, System.nanoTime() - start);
+        }
+
+        if (store != null) {
+            start = System.nanoTime();
+            try {
+                store.save(aggregate);
+            } catch (IOException e) {
+                System.err.println("Warning: could not save results to " + store.fileFor(n, base) + ": " + e);
+            }
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addPhase(SweepMetrics.Phase.STORE_IO, System.nanoTime() - start);
+            }
+        }
+        return aggregate;
+    }
+
+    /**
+     * Wraps an analyzer so that it throws once a deadline has passed. The clock is read every
+     * 1024 analyses, so the check costs next to nothing. Like the analyzer, the wrapper is single-threaded.
+     * @param analyzer The analyzer to wrap.
+     * @param deadlineNanos The System.nanoTime() after which analyses fail, or Long.MAX_VALUE for none.
+     * @return The wrapped analyzer, or `analyzer` itself when there is no deadline.
+     * @throws SweepTimeoutException from the returned function once the deadline has passed.
+     */
+    static Function<int[], KaprekarResult> withDeadline(Function<int[], KaprekarResult> analyzer, long deadlineNanos) {
+        if (deadlineNanos == Long.MAX_VALUE) {
+            return analyzer;
+        }
+        int[] calls = new int[1];
+        return digits -> {
+            if ((++calls[0] & 1023) == 0 && System.nanoTime() - deadlineNanos > 0) {
+                throw new SweepTimeoutException();
+            }
+            return analyzer.apply(digits);
+        };
+    }
+
+    /**
+     * Analyzes one digit multiset on behalf of all of its valid arrangements and adds the
+     * outcome to the aggregate with the arrangement count as its weight.
+     * Every arrangement of a multiset has the same first subtraction result, so they all share
+     * the same final number or cycle, and those that are not on it take the same number of steps
+     * and reach the cycle through the same element. The arrangements that are themselves the fixed
+     * point or a cycle element take 0 steps and reach the cycle at themselves, so each of them is
+     * split off as its own result. The rest are added with the smallest of them as the starting
+     * number, which decides the cycle rotation the aggregate shows.
+     * @param descendingDigits The multiset's digits sorted in decreasing order (a valid arrangement).
+     * @param weight The number of valid arrangements of the multiset.
+     * @param base The base of the number system.
+     * @param analyzer The engine that analyzes a single number.
+     * @param aggregate The aggregate that receives the weighted result.
+     */
+    static void analyzeMultiset(int[] descendingDigits, long weight, int base,
+                                Function<int[], KaprekarResult> analyzer, KaprekarAggregate aggregate) {
+        KaprekarResult result = analyzer.apply(descendingDigits);
+        List<int[]> attractor = result.getType() == ResultType.FINAL
+                ? List.of(result.getFinalNumber()) : result.getCycleElements();
+
+        // The attractor elements that are valid arrangements of this multiset
+        List<int[]> onAttractor = new ArrayList<>();
+        int[] elementDescending = new int[descendingDigits.length];
+        for (int i = 0; i < attractor.size(); i++) {
+            int[] element = attractor.get(i);
+            sortDigits(element, base, elementDescending, null);
+            if (element[0] != 0 && Arrays.equals(elementDescending, descendingDigits)) {
+                onAttractor.add(element);
+                aggregate.add(resultFrom(element, attractor, i, 0, base), 1);
+            }
+        }
+        long remaining = weight - onAttractor.size();
+        if (remaining == 0) {
+            return;
+        }
+        int[] start = smallestArrangement(descendingDigits, onAttractor);
+        if (result.getIterations() == 0) {
+            // The descending arrangement is on the attractor, so the others step to the next element
+            aggregate.add(resultFrom(start, attractor, 1 % attractor.size(), 1, base), remaining);
+        } else {
+            // The others step to the same image as the descending arrangement and follow its path
+            aggregate.add(resultFrom(start, attractor, 0, result.getIterations(), base), remaining);
+        }
+    }
+
+    /**
+     * Builds the result of a number that reaches an attractor at a given element.
+     * @param initialDigits The number.
+     * @param attractor The attractor's elements in cycle order; a fixed point has one.
+     * @param entry The index of the element the number reaches first.
+     * @param iterations The steps it takes to get there.
+     * @param base The base of the number system.
+     * @return The result.
+     */
+    private static KaprekarResult resultFrom(int[] initialDigits, List<int[]> attractor, int entry, int iterations,
+                                             int base) {
+        if (attractor.size() == 1) {
+            return new KaprekarResult(initialDigits, attractor.get(0), iterations, base);
+        }
+        List<int[]> cycleElements = new ArrayList<>(attractor.size());
+        for (int i = 0; i < attractor.size(); i++) {
+            cycleElements.add(attractor.get((entry + i) % attractor.size()));
+        }
+        return new KaprekarResult(initialDigits, cycleElements, iterations, base);
+    }
+
+    /**
+     * Finds the smallest valid arrangement of a multiset that is not one of the given numbers.
+     * @param descendingDigits The multiset's digits in decreasing order.
+     * @param excluded Arrangements to skip; fewer than there are valid arrangements.
+     * @return The arrangement's digits.
+     */
+    static int[] smallestArrangement(int[] descendingDigits, List<int[]> excluded) {
+        int n = descendingDigits.length;
+        int[] digits = new int[n];
+        for (int i = 0; i < n; i++) {
+            digits[i] = descendingDigits[n - 1 - i];
+        }
+        // The smallest nonzero digit leads, the rest follow in increasing order
+        int lead = 0;
+        while (lead < n - 1 && digits[lead] == 0) {
+            lead++;
+        }
+        int leadDigit = digits[lead];
+        System.arraycopy(digits, 0, digits, 1, lead);
+        digits[0] = leadDigit;
+        while (contains(excluded, digits)) {
+            // Next permutation; the leading digit can only grow, so it stays nonzero
+            int i = n - 2;
+            while (digits[i] >= digits[i + 1]) {
+                i--;
+            }
+            int j = n - 1;
+            while (digits[j] <= digits[i]) {
+                j--;
+            }
+            int swap = digits[i];
+            digits[i] = digits[j];
+            digits[j] = swap;
+            for (int l = i + 1, r = n - 1; l < r; l++, r--) {
+                swap = digits[l];
+                digits[l] = digits[r];
+                digits[r] = swap;
+            }
+        }
+        return digits;
+    }
+
+    private static boolean contains(List<int[]> numbers, int[] digits) {
+        for (int[] number : numbers) {
+            if (Arrays.equals(number, digits)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts an integer digit value (0-35) to its character representation ('0'-'9', 'A'-'Z').
+     * @param digit The integer value of the digit.
+     * @return The character representation of the digit.
+     * @throws IllegalArgumentException if the digit is out of the valid range (0-35).
+     */
+    public static char digitToChar(int digit) {
+        if (digit >= 0 && digit <= 9) {
+            return (char) ('0' + digit);
+        } else if (digit >= 10 && digit <= 35) {
+            return (char) ('A' + (digit - 10));
+        } else {
+            throw new IllegalArgumentException("Digit " + digit + " is out of valid range (0-35)");
+        }
+    }
+
+    /**
+     * Converts an array of integer digits into a string representation using the specified base,
+     * converting digit values > 9 to letters (A-Z).
+     * @param digits The array of integer digits.
+     * @param base The base of the number system for display.
+     * @return A string representation of the number (e.g., "[1, 0, A]" for [1, 0, 10] in base 16).
+     */
+    public static String arrayToStringWithBaseDigits(int[] digits, int base) {
+        if (digits == null) {
+            return "null";
+        }
+        if (digits.length == 0) {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < digits.length; i++) {
+            sb.append(digitToChar(digits[i]));
+            if (i < digits.length - 1) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+
+    /**
+     * Analyzes the Kaprekar-like sequence for a given initial number in a specific base.
+     * @param initialDigits The starting number's digits as an array.
+     * @param n The number of digits (used for padding results).
+     * @param base The base of the number system.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    static KaprekarResult analyzeKaprekarSequence(int[] initialDigits, int n, int base) {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            return analyzeWideKaprekarSequence(initialDigits, n, base);
+        }
+
+        // The sequence is walked on packed values; digit arrays are only built for the result
+        KaprekarKernel kernel = new KaprekarKernel(n, base);
+        long[] sequenceHistory = new long[16];
+        int historySize = 0;
+        long currentNum = digitsToLong(initialDigits, base);
+        int iteration = 0; 
+
+        while (true) {
+            if (historySize == sequenceHistory.length) {
+                sequenceHistory = Arrays.copyOf(sequenceHistory, historySize * 2);
+            }
+            sequenceHistory[historySize++] = currentNum; 
+            iteration++; 
+
+            long nextNum = kernel.step(currentNum);
+            
+            if (nextNum == currentNum) {
+                // Pass base to KaprekarResult constructor
+                return new KaprekarResult(initialDigits, longToPaddedDigits(nextNum, n, base), iteration - 1, base);
+            }
+
+            int cycleStartIndex = -1;
+            for (int i = 0; i < historySize; i++) {
+                if (nextNum == sequenceHistory[i]) {
+                    cycleStartIndex = i; 
+                    break;
+                }
+            }
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addCycleScanComparisons(cycleStartIndex == -1 ? historySize : cycleStartIndex + 1);
+            }
+
+            if (cycleStartIndex != -1) {
+                List<int[]> trueCycleElements = new ArrayList<>();
+                for (int i = cycleStartIndex; i < historySize; i++) {
+                    trueCycleElements.add(longToPaddedDigits(sequenceHistory[i], n, base)); 
+                }
+                // Pass base to KaprekarResult constructor
+                return new KaprekarResult(initialDigits, trueCycleElements, cycleStartIndex, base);
+            }
+
+            currentNum = nextNum;
+        }
+    }
+
+    /**
+     * Analyzes the Kaprekar-like sequence with Brent's cycle detection instead of a history scan.
+     * Only a constant number of values is kept alive, and the result (iterations and cycle elements,
+     * listed from the first element the trajectory reaches) is identical to `analyzeKaprekarSequence`.
+     * @param initialDigits The starting number's digits as an array.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    static KaprekarResult analyzeKaprekarSequenceBrent(int[] initialDigits, int n, int base) {
+        if (!KaprekarKernel.fitsInLong(n, base)) {
+            return analyzeWideKaprekarSequenceBrent(initialDigits, n, base);
+        }
+
+        KaprekarKernel kernel = new KaprekarKernel(n, base);
+        long start = digitsToLong(initialDigits, base);
+
+        // Phase 1: cycle length. The tortoise jumps to the hare whenever the hare has taken a
+        // power-of-two number of steps, until the hare runs into it.
+        int power = 1;
+        int cycleLength = 1;
+        long tortoise = start;
+        long hare = kernel.step(start);
+        while (tortoise != hare) {
+            if (power == cycleLength) {
+                tortoise = hare;
+                power *= 2;
+                cycleLength = 0;
+            }
+            hare = kernel.step(hare);
+            cycleLength++;
+        }
+
+        // Phase 2: cycle start. With the hare one cycle length ahead, both meet at the first
+        // element of the sequence that lies on the cycle.
+        tortoise = start;
+        hare = start;
+        for (int i = 0; i < cycleLength; i++) {
+            hare = kernel.step(hare);
+        }
+        int cycleStartIndex = 0;
+        while (tortoise != hare) {
+            tortoise = kernel.step(tortoise);
+            hare = kernel.step(hare);
+            cycleStartIndex++;
+        }
+
+        if (cycleLength == 1) {
+            return new KaprekarResult(initialDigits, longToPaddedDigits(tortoise, n, base), cycleStartIndex, base);
+        }
+
+        // Phase 3: walk the cycle once more to list its elements
+        List<int[]> trueCycleElements = new ArrayList<>(cycleLength);
+        for (int i = 0; i < cycleLength; i++) {
+            trueCycleElements.add(longToPaddedDigits(tortoise, n, base));
+            tortoise = kernel.step(tortoise);
+        }
+        return new KaprekarResult(initialDigits, trueCycleElements, cycleStartIndex, base);
+    }
+
+    /**
+     * Brent's cycle detection for numbers too wide to pack into a long. Same phases as
+     * `analyzeKaprekarSequenceBrent`, with two digit arrays stepped in place.
+     * @param initialDigits The starting number's digits as an array.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    private static KaprekarResult analyzeWideKaprekarSequenceBrent(int[] initialDigits, int n, int base) {
+        WideKaprekarKernel kernel = new WideKaprekarKernel(n, base);
+
+        int power = 1;
+        int cycleLength = 1;
+        int[] tortoise = initialDigits.clone();
+        int[] hare = new int[n];
+        kernel.step(initialDigits, hare);
+        while (!Arrays.equals(tortoise, hare)) {
+            if (power == cycleLength) {
+                System.arraycopy(hare, 0, tortoise, 0, n);
+                power *= 2;
+                cycleLength = 0;
+            }
+            kernel.step(hare, hare);
+            cycleLength++;
+        }
+
+        System.arraycopy(initialDigits, 0, tortoise, 0, n);
+        System.arraycopy(initialDigits, 0, hare, 0, n);
+        for (int i = 0; i < cycleLength; i++) {
+            kernel.step(hare, hare);
+        }
+        int cycleStartIndex = 0;
+        while (!Arrays.equals(tortoise, hare)) {
+            kernel.step(tortoise, tortoise);
+            kernel.step(hare, hare);
+            cycleStartIndex++;
+        }
+
+        if (cycleLength == 1) {
+            return new KaprekarResult(initialDigits, tortoise, cycleStartIndex, base);
+        }
+
+        List<int[]> trueCycleElements = new ArrayList<>(cycleLength);
+        for (int i = 0; i < cycleLength; i++) {
+            trueCycleElements.add(tortoise.clone());
+            kernel.step(tortoise, tortoise);
+        }
+        return new KaprekarResult(initialDigits, trueCycleElements, cycleStartIndex, base);
+    }
+
+    /**
+     * Analyzes the Kaprekar-like sequence for numbers too wide to pack into a long,
+     * stepping digit arrays with `WideKaprekarKernel`.
+     * @param initialDigits The starting number's digits as an array.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A KaprekarResult object detailing the outcome of the analysis.
+     */
+    private static KaprekarResult analyzeWideKaprekarSequence(int[] initialDigits, int n, int base) {
+        WideKaprekarKernel kernel = new WideKaprekarKernel(n, base);
+        List<int[]> sequenceHistory = new ArrayList<>();
+        int[] currentNum = initialDigits;
+        int iteration = 0;
+
+        while (true) {
+            sequenceHistory.add(currentNum);
+            iteration++;
+
+            int[] nextNum = new int[n];
+            kernel.step(currentNum, nextNum);
+
+            if (Arrays.equals(nextNum, currentNum)) {
+                return new KaprekarResult(initialDigits, nextNum, iteration - 1, base);
+            }
+
+            int cycleStartIndex = -1;
+            for (int i = 0; i < sequenceHistory.size(); i++) {
+                if (Arrays.equals(nextNum, sequenceHistory.get(i))) {
+                    cycleStartIndex = i;
+                    break;
+                }
+            }
+            if (SweepMetrics.ENABLED) {
+                SweepMetrics.addCycleScanComparisons(cycleStartIndex == -1 ? sequenceHistory.size() : cycleStartIndex + 1);
+            }
+
+            if (cycleStartIndex != -1) {
+                List<int[]> trueCycleElements = new ArrayList<>();
+                for (int i = cycleStartIndex; i < sequenceHistory.size(); i++) {
+                    trueCycleElements.add(sequenceHistory.get(i).clone());
+                }
+                return new KaprekarResult(initialDigits, trueCycleElements, cycleStartIndex, base);
+            }
+
+            currentNum = nextNum;
+        }
+    }
+
+    /**
+     * Packs an array of digits in a given base into a long, most significant digit first.
+     * Exact as long as base^n fits in a long.
+     * @param digits The array of digits.
+     * @param base The base of the number system the digits are in.
+     * @return The value of the digits as a long.
+     */
+    static long digitsToLong(int[] digits, int base) {
+        long number = 0;
+        for (int digit : digits) {
+            number = number * base + digit;
+        }
+        return number;
+    }
+
+    /**
+     * Unpacks a long into an array of its digits in a specified base, padded with leading zeros
+     * to length `n`. Inverse of `digitsToLong`.
+     * @param number The non-negative value to convert.
+     * @param n The desired length of the digit array.
+     * @param base The target base for the digit representation.
+     * @return An array of n digits representing the number in the specified base.
+     */
+    static int[] longToPaddedDigits(long number, int n, int base) {
+        int[] result = new int[n];
+        for (int i = n - 1; i >= 0 && number > 0; i--) {
+            result[i] = (int) (number % base);
+            number /= base;
+        }
+        return result;
+    }
+
+    /**
+     * Subtracts the integer formed by increasing order digits from the integer
+     * formed by decreasing order digits, and returns the result as an array of digits
+     * padded to the original length `n` in the specified base.
+     * @param decreasingDigits An array of digits sorted in decreasing order (in the current base).
+     * @param increasingDigits An array of digits sorted in increasing order (in the current base).
+     * @param n The original number of digits for padding the result.
+     * @param base The base of the number system.
+     * @return An array of digits representing the result of the subtraction in the specified base, padded with leading zeros.
+     */
+    static int[] subtractSortedNumbers(int[] decreasingDigits, int[] increasingDigits, int n, int base) {
+        int[] result;
+        if (KaprekarKernel.fitsInLong(n, base)) {
+            // Fast path: both numbers and their difference fit in a long
+            long difference = digitsToLong(decreasingDigits, base) - digitsToLong(increasingDigits, base);
+            result = longToPaddedDigits(difference, n, base);
+        } else {
+            result = new int[n];
+            WideKaprekarKernel.subtractWithBorrow(decreasingDigits, increasingDigits, base, result);
+        }
+        return result;
+    }
+    
+    /**
+     * Sorts digits into decreasing and increasing order with one counting pass: the histogram of
+     * the digits is built once and read out in both directions, so repeated digits cost nothing extra.
+     * @param digits The digits to sort.
+     * @param base The base of the number system; every digit is below it.
+     * @param decreasing Receives the digits in decreasing order, or null if not needed.
+     * @param increasing Receives the digits in increasing order, or null if not needed.
+     */
+    static void sortDigits(int[] digits, int base, int[] decreasing, int[] increasing) {
+        int[] counts = new int[base];
+        for (int digit : digits) {
+            counts[digit]++;
+        }
+        int position = 0;
+        for (int digit = 0; digit < base; digit++) {
+            for (int c = counts[digit]; c > 0; c--) {
+                if (increasing != null) {
+                    increasing[position] = digit;
+                }
+                if (decreasing != null) {
+                    decreasing[digits.length - 1 - position] = digit;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Helper method to sort digits in decreasing order using a counting sort.
+     * @param digits The array of digits to sort.
+     * @return A new array with digits sorted in decreasing order.
+     */
+    static int[] getDecreasingOrder(int[] digits) {
+        int[] result = new int[digits.length];
+        sortDigits(digits, histogramSize(digits), result, null);
+        return result;
+    }
+
+    /**
+     * Helper method to sort digits in increasing order using a counting sort.
+     * @param digits The array of digits to sort.
+     * @return A new array with digits sorted in increasing order.
+     */
+    static int[] getIncreasingOrder(int[] digits) {
+        int[] result = new int[digits.length];
+        sortDigits(digits, histogramSize(digits), null, result);
+        return result;
+    }
+
+    /**
+     * @param digits Digits of an unknown base.
+     * @return One more than the largest digit, the smallest histogram that can count them.
+     */
+    private static int histogramSize(int[] digits) {
+        int max = 0;
+        for (int digit : digits) {
+            max = Math.max(max, digit);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Checks if a number (represented by its digits) is a valid candidate for Kaprekar's Routine.
+     * A valid candidate must:
+     * 1. Have at least two distinct digits (to ensure descending and ascending numbers are different).
+     * 2. If it's a multi-digit number (n > 1), its first digit must not be 0.
+     * @param digits The array of digits representing the number.
+     * @param base The base of the number system.
+     * @return true if the number is a valid Kaprekar candidate, false otherwise.
+     */
+    static boolean checkedNumber(int[] digits, int base) {
+        int n = digits.length;
+
+        // Condition 2: If multi-digit, must not start with zero.
+        if (n > 1 && digits[0] == 0) {
+            return false;
+        }
+
+        // Condition 1: Must have at least two distinct digits.
+        boolean allSame = true;
+        for (int i = 1; i < n; i++) {
+            if (digits[i] != digits[0]) {
+                allSame = false;
+                break;
+            }
+        }
+        return !allSame; // If all digits are the same, it's not a valid Kaprekar number.
+    }
+
+    /**
+     * This method generates ALL valid n-digit numbers as per the `checkedNumber` logic
+     * for a given base.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return A list of valid n-digit numbers as arrays of digits.
+     */
+    public static List<int[]> generateAllNumbers(int n, int base) {
+        List<int[]> validNumbers = new ArrayList<>();
+        forEachNumber(n, base, digits -> validNumbers.add(digits.clone())); // Add a clone to avoid modification issues
+        return validNumbers;
+    }
+
+    /**
+     * Streams ALL valid n-digit numbers as per the `checkedNumber` logic to a consumer, in the same
+     * order as `generateAllNumbers`, without materializing them.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param consumer Receives each valid number. The array is reused between calls, so clone it before keeping it.
+     */
+    public static void forEachNumber(int n, int base, Consumer<int[]> consumer) {
+        int[] digits = new int[n];
+        generateAllDigitsRecursive(digits, 0, n, consumer, base);
+    }
+
+    /**
+     * Feeds the valid n-digit numbers that start with the given digits to a consumer, in the same
+     * order `forEachNumber` produces them. Prefixes of one length partition all n-digit numbers.
+     * @param prefix The leading digits every number shares; must not start with 0 when n > 1.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param consumer Receives each valid number; the array is reused, so copy it to keep it.
+     */
+    static void forEachNumberWithPrefix(int[] prefix, int n, int base, Consumer<int[]> consumer) {
+        int[] digits = Arrays.copyOf(prefix, n);
+        generateAllDigitsRecursive(digits, prefix.length, n, consumer, base);
+    }
+
+    /**
+     * Recursive helper for `forEachNumber` to build all digit combinations
+     * for a given base.
+     * @param digits The current digit array being built.
+     * @param position The current digit position being set (0-indexed).
+     * @param n The total number of digits for the number.
+     * @param consumer Receives each valid number.
+     * @param base The base of the number system.
+     */
+    private static void generateAllDigitsRecursive(int[] digits, int position, int n, Consumer<int[]> consumer, int base) {
+        if (position == n) {
+            // Once all positions are filled, check if the number is valid
+            if (checkedNumber(digits, base)) {
+                consumer.accept(digits);
+            }
+            return;
+        }
+
+        // Determine the starting digit for the current position:
+        // If it's the first digit (position == 0) and it's a multi-digit number (n > 1),
+        // the first digit cannot be 0. Otherwise, it can be 0.
+        int startDigit = (position == 0 && n > 1) ? 1 : 0; 
+
+        // Digits range from 0 to (base - 1)
+        for (int digit = startDigit; digit < base; digit++) {
+            digits[position] = digit;
+            generateAllDigitsRecursive(digits, position + 1, n, consumer, base);
+        }
+    }
+} // End of class o7_16_2025
@@ -0,0 +1,35 @@
+package pack;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Renders everything a KaprekarAggregate reports as one string, so tests can compare whole
+// aggregates with assertEquals and see the first difference in the failure message.
+final class Aggregates {
+    private Aggregates() {
+    }
+
+    /**
+     * @param aggregate The aggregate to describe.
+     * @return Its totals, histogram, final numbers and cycles (with the example rotation), one per line.
+     */
+    static String describe(KaprekarAggregate aggregate) {
+        int base = aggregate.getBase();
+        StringBuilder text = new StringBuilder();
+        text.append("N=").append(aggregate.getN()).append(" base=").append(base).append('\n');
+        text.append("checked=").append(aggregate.getTotalCheckedNumbers())
+                .append(" toCycles=").append(aggregate.getTotalNumbersConvergedToCycles())
+                .append(" maxIterationsToFinal=").append(aggregate.getMaxIterationsToFinal()).append('\n');
+        text.append("histogram=").append(Arrays.toString(aggregate.getIterationHistogram())).append('\n');
+        List<int[]> finalNumbers = aggregate.getUniqueFinalNumbers();
+        long[] finalNumberCounts = aggregate.getFinalNumberCounts();
+        for (int i = 0; i < finalNumbers.size(); i++) {
+            text.append("final ").append(o7_16_2025.arrayToStringWithBaseDigits(finalNumbers.get(i), base))
+                    .append(" x").append(finalNumberCounts[i]).append('\n');
+        }
+        for (UniqueCycleRepresenter cycle : aggregate.getUniqueCycles()) {
+            text.append("cycle ").append(cycle).append(" x").append(cycle.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+} // End of class Aggregates
@@ -0,0 +1,48 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class AttractorIndexTest {
+
+    // Packed keys up to fitsInLong, digit-content keys beyond it; the slots must not depend on which
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"4, 10", "19, 10", "20, 10"})
+    void slotsAreDenseAndStable(int n, int base) {
+        AttractorIndex index = new AttractorIndex(n, base);
+        int[] zero = new int[n];
+        int[] one = new int[n];
+        one[n - 1] = 1;
+        int[] top = new int[n];
+        top[0] = base - 1;
+
+        assertEquals(0, index.getOrAdd(zero));
+        assertEquals(1, index.getOrAdd(one));
+        // The index copies its keys, so a caller may reuse the array
+        int[] reused = top.clone();
+        assertEquals(2, index.getOrAdd(reused));
+        reused[0] = 0;
+        assertEquals(2, index.getOrAdd(top));
+        assertEquals(1, index.getOrAdd(one.clone()));
+        assertEquals(3, index.size());
+    }
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"5, 10", "6, 10"})
+    void rotationsShareTheirCanonicalElement(int n, int base) {
+        KaprekarAggregate aggregate = o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1);
+        for (UniqueCycleRepresenter cycle : aggregate.getUniqueCycles()) {
+            List<int[]> elements = cycle.getExampleCycleElements();
+            for (int shift = 0; shift < elements.size(); shift++) {
+                List<int[]> rotation = new ArrayList<>(elements.subList(shift, elements.size()));
+                rotation.addAll(elements.subList(0, shift));
+                assertEquals(cycle, new UniqueCycleRepresenter(rotation, base));
+            }
+        }
+    }
+} // End of class AttractorIndexTest
@@ -0,0 +1,91 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// The scalar kernel and the vectorized one (the test JVM adds jdk.incubator.vector) against the
+// packed and the wide step.
+class BatchKaprekarKernelTest {
+
+    @Test
+    void createPicksTheVectorKernel() {
+        assertTrue(BatchKaprekarKernel.isVectorApiAvailable());
+        assertTrue(BatchKaprekarKernel.create(4, 10, 8) instanceof VectorBatchKaprekarKernel);
+    }
+
+    @Test
+    void sortingNetworksSortEveryZeroOneInput() {
+        // By the 0-1 principle this proves the network sorts any input
+        for (int n = 1; n <= 16; n++) {
+            int[] network = BatchKaprekarKernel.sortingNetwork(n);
+            for (int mask = 0; mask < 1 << n; mask++) {
+                int[] values = new int[n];
+                for (int p = 0; p < n; p++) {
+                    values[p] = (mask >>> p) & 1;
+                }
+                for (int i = 0; i < network.length; i += 2) {
+                    int low = Math.min(values[network[i]], values[network[i + 1]]);
+                    values[network[i + 1]] = Math.max(values[network[i]], values[network[i + 1]]);
+                    values[network[i]] = low;
+                }
+                for (int p = 1; p < n; p++) {
+                    assertTrue(values[p - 1] <= values[p], n + " inputs, mask " + mask);
+                }
+            }
+        }
+    }
+
+    // A capacity that is not a multiple of any vector width, so tail lanes are exercised too
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "2, 36", "7, 2"})
+    void blocksMatchThePackedStep(int n, int base) {
+        for (BatchKaprekarKernel kernel : new BatchKaprekarKernel[] {
+                new BatchKaprekarKernel(n, base, 37), BatchKaprekarKernel.create(n, base, 37)}) {
+            long values = (long) Math.pow(base, n);
+            int[] packed = new int[37];
+            int[] counts = new int[base];
+            for (long first = 0; first < values; first += 37) {
+                int count = (int) Math.min(37, values - first);
+                kernel.loadRange(first, count);
+                kernel.step(count);
+                kernel.storePacked(packed, 0, count);
+                for (int lane = 0; lane < count; lane++) {
+                    assertEquals(KaprekarKernel.step(first + lane, n, base, counts), packed[lane], "value " + (first + lane));
+                }
+            }
+        }
+    }
+
+    @Test
+    void wideNumbersMatchTheWideKernel() {
+        SplittableRandom random = new SplittableRandom(17);
+        for (int[] configuration : new int[][] {{25, 10}, {14, 36}, {70, 2}}) {
+            int n = configuration[0];
+            int base = configuration[1];
+            BatchKaprekarKernel kernel = BatchKaprekarKernel.create(n, base, 37);
+            int[][] numbers = new int[37][n];
+            for (int lane = 0; lane < 37; lane++) {
+                for (int p = 0; p < n; p++) {
+                    numbers[lane][p] = random.nextInt(base);
+                }
+                kernel.setNumber(lane, numbers[lane]);
+            }
+            kernel.step(37);
+            WideKaprekarKernel wide = new WideKaprekarKernel(n, base);
+            int[] expected = new int[n];
+            int[] actual = new int[n];
+            for (int lane = 0; lane < 37; lane++) {
+                wide.step(numbers[lane], expected);
+                kernel.getNumber(lane, actual);
+                assertArrayEquals(expected, actual);
+            }
+        }
+    }
+} // End of class BatchKaprekarKernelTest
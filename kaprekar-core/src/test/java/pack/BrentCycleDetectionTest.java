@@ -0,0 +1,19 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// Brent's walk must report the same fixed point or cycle, entry element and step count as the
+// history scan it replaces.
+class BrentCycleDetectionTest {
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "2, 36", "8, 2", "5, 7"})
+    void matchesHistoryScan(int n, int base) {
+        DigitArrays.forEach(n, base, digits -> assertEquals(
+                o7_16_2025.analyzeKaprekarSequence(digits, n, base).toString(),
+                o7_16_2025.analyzeKaprekarSequenceBrent(digits, n, base).toString()));
+    }
+} // End of class BrentCycleDetectionTest
@@ -0,0 +1,43 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class CheckpointedSweepTest {
+    @TempDir
+    Path directory;
+
+    // A deadline that has already passed stops the sweep at the 1024th analysis (see
+    // o7_16_2025.withDeadline), so the chunks before that one are checkpointed every time.
+    @ParameterizedTest(name = "{0} digits in base {1}, multisets: {2}")
+    @CsvSource({"5, 10, true", "4, 16, true", "6, 10, true", "2, 36, false", "3, 5, false"})
+    void resumedSweepMatchesFullSweep(int n, int base, boolean multiset) throws IOException {
+        CheckpointedSweep interrupted = new CheckpointedSweep(directory, 0, false);
+        Path file = interrupted.fileFor(n, base, multiset);
+        long expired = System.nanoTime() - 1;
+        long analyses = multiset ? MultisetEnumerator.countMultisets(n, base) : MultisetEnumerator.countValidNumbers(n, base);
+        if (analyses > 1024) {
+            assertThrows(SweepTimeoutException.class,
+                    () -> interrupted.run(n, base, multiset, AnalysisEngine.BRENT, 1, expired));
+            // The header's cursor: the chunks already in the saved aggregate
+            assertTrue(ByteBuffer.wrap(Files.readAllBytes(file)).getLong(6 * 4) > 0);
+        }
+
+        KaprekarAggregate resumed = new CheckpointedSweep(directory, 0, true)
+                .run(n, base, multiset, AnalysisEngine.SUCCESSOR_GRAPH, 1, Long.MAX_VALUE);
+        assertEquals(Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1)),
+                Aggregates.describe(resumed));
+        assertFalse(Files.exists(file));
+    }
+} // End of class CheckpointedSweepTest
@@ -0,0 +1,121 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ColumnarExportTest {
+    @TempDir
+    Path directory;
+
+    // 6/8 has 229,369 rows, so it spans several blocks
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "6, 8"})
+    void everyRowMatchesItsNumber(int n, int base) throws IOException {
+        Path file = ColumnarExport.fileFor(directory, n, base);
+        ColumnarExport.write(file, n, base, Long.MAX_VALUE);
+        KaprekarAggregate full = o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1);
+
+        try (ColumnarExport.Reader reader = ColumnarExport.Reader.open(file)) {
+            assertEquals(n, reader.getN());
+            assertEquals(base, reader.getBase());
+            assertEquals(MultisetEnumerator.countValidNumbers(n, base), reader.getRowCount());
+            assertEquals((reader.getRowCount() + ColumnarExport.ROWS_PER_BLOCK - 1) / ColumnarExport.ROWS_PER_BLOCK,
+                    reader.getBlockCount());
+            assertEquals(full.getUniqueFinalNumbers().size() + full.getUniqueCycles().size(),
+                    reader.getAttractorCount());
+
+            long[] row = {0};
+            o7_16_2025.forEachNumber(n, base, digits -> {
+                long value = o7_16_2025.digitsToLong(digits, base);
+                KaprekarResult result = o7_16_2025.analyzeKaprekarSequenceBrent(digits.clone(), n, base);
+                try {
+                    assertEquals(row[0]++, reader.rowOf(value));
+                    assertEquals(result.getIterations(), reader.iterationsOf(value));
+                    assertEquals(describe(fromSmallest(attractorOf(result))),
+                            describe(reader.getAttractor(reader.attractorIdOf(value))), () -> Arrays.toString(digits));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            assertEquals(reader.getRowCount(), row[0]);
+        }
+    }
+
+    @Test
+    void rejectsInvalidNumbers() throws IOException {
+        Path file = ColumnarExport.fileFor(directory, 4, 10);
+        ColumnarExport.write(file, 4, 10, Long.MAX_VALUE);
+        try (ColumnarExport.Reader reader = ColumnarExport.Reader.open(file)) {
+            assertEquals(0, reader.rowOf(1000));
+            assertEquals(reader.getRowCount() - 1, reader.rowOf(9998));
+            assertThrows(IllegalArgumentException.class, () -> reader.rowOf(999));
+            assertThrows(IllegalArgumentException.class, () -> reader.rowOf(10000));
+            assertThrows(IllegalArgumentException.class, () -> reader.rowOf(3333));
+        }
+    }
+
+    @Test
+    void detectsCorruption() throws IOException {
+        Path file = ColumnarExport.fileFor(directory, 5, 10);
+        ColumnarExport.write(file, 5, 10, Long.MAX_VALUE);
+        byte[] bytes = Files.readAllBytes(file);
+
+        // The first block starts right after the 20-byte header
+        byte[] corrupt = bytes.clone();
+        corrupt[24] ^= 0x40;
+        Files.write(file, corrupt);
+        try (ColumnarExport.Reader reader = ColumnarExport.Reader.open(file)) {
+            assertThrows(IOException.class, () -> reader.iterationsOf(10001));
+        }
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> ColumnarExport.Reader.open(file));
+    }
+
+    @Test
+    void expiredDeadlineLeavesNoFile() throws IOException {
+        Path file = ColumnarExport.fileFor(directory, 6, 10);
+        assertThrows(SweepTimeoutException.class, () -> ColumnarExport.write(file, 6, 10, System.nanoTime() - 1));
+        try (var files = Files.list(directory)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+
+    private static List<int[]> attractorOf(KaprekarResult result) {
+        return result.getType() == ResultType.FINAL ? List.of(result.getFinalNumber()) : result.getCycleElements();
+    }
+
+    private static List<int[]> fromSmallest(List<int[]> cycle) {
+        int smallest = 0;
+        for (int i = 1; i < cycle.size(); i++) {
+            if (Arrays.compare(cycle.get(i), cycle.get(smallest)) < 0) {
+                smallest = i;
+            }
+        }
+        List<int[]> rotated = new ArrayList<>(cycle.subList(smallest, cycle.size()));
+        rotated.addAll(cycle.subList(0, smallest));
+        return rotated;
+    }
+
+    private static String describe(List<int[]> elements) {
+        StringBuilder text = new StringBuilder();
+        for (int[] element : elements) {
+            text.append(Arrays.toString(element));
+        }
+        return text.toString();
+    }
+} // End of class ColumnarExportTest
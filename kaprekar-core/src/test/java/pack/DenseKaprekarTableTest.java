@@ -0,0 +1,37 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class DenseKaprekarTableTest {
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "2, 36"})
+    void tableMatchesReferenceAnalysis(int n, int base) {
+        DenseKaprekarTable table = DenseKaprekarTable.forConfiguration(n, base, Long.MAX_VALUE);
+        assertSame(table, DenseKaprekarTable.forConfiguration(n, base, Long.MAX_VALUE));
+        DigitArrays.forEach(n, base, digits -> assertEquals(
+                o7_16_2025.analyzeKaprekarSequence(digits, n, base).toString(), table.analyze(digits).toString()));
+        assertEquals(Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1)),
+                Aggregates.describe(table.aggregate()));
+    }
+
+    @Test
+    void fitsUpToMaxValues() {
+        int n = 1;
+        long values = 10;
+        while (values * 10 <= DenseKaprekarTable.MAX_VALUES) {
+            n++;
+            values *= 10;
+        }
+        assertTrue(DenseKaprekarTable.fits(n, 10));
+        assertFalse(DenseKaprekarTable.fits(n + 1, 10));
+        assertFalse(DenseKaprekarTable.fits(40, 36));
+    }
+} // End of class DenseKaprekarTableTest
@@ -0,0 +1,31 @@
+package pack;
+
+import java.util.function.Consumer;
+
+// Every n-digit array of a base, leading zeros and repdigits included, for tests that compare
+// analyzers number by number.
+final class DigitArrays {
+    private DigitArrays() {
+    }
+
+    /**
+     * Visits all base^n digit arrays in increasing order.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @param consumer Receives each array; it is a fresh copy and may be kept.
+     */
+    static void forEach(int n, int base, Consumer<int[]> consumer) {
+        int[] digits = new int[n];
+        while (true) {
+            consumer.accept(digits.clone());
+            int position = n - 1;
+            while (position >= 0 && digits[position] == base - 1) {
+                digits[position--] = 0;
+            }
+            if (position < 0) {
+                return;
+            }
+            digits[position]++;
+        }
+    }
+} // End of class DigitArrays
@@ -0,0 +1,73 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// The Gray code walk must visit every valid number once, move one digit by one between
+// neighbours, and keep the histogram and the first successor in step with the digits.
+class GrayCodeEnumeratorTest {
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"2, 2", "5, 2", "3, 3", "4, 5", "4, 10", "3, 11", "2, 36", "7, 4"})
+    void visitsEveryValidNumberOnceInGrayCodeOrder(int n, int base) {
+        Set<Long> expected = new HashSet<>();
+        o7_16_2025.forEachNumber(n, base, digits -> expected.add(o7_16_2025.digitsToLong(digits, base)));
+
+        Set<Long> visited = new HashSet<>();
+        int[][] previous = {null};
+        GrayCodeEnumerator.forEachNumber(n, base, (digits, counts, number, image) -> {
+            String where = Arrays.toString(digits);
+            assertTrue(o7_16_2025.checkedNumber(digits, base), where);
+            assertEquals(o7_16_2025.digitsToLong(digits, base), number, where);
+            assertTrue(visited.add(number), "visited twice: " + where);
+
+            int[] histogram = new int[base];
+            for (int digit : digits) {
+                histogram[digit]++;
+            }
+            assertArrayEquals(histogram, counts, where);
+            assertEquals(KaprekarKernel.step(number, n, base, new int[base]), image, where);
+
+            if (previous[0] != null) {
+                assertTrue(adjacent(previous[0], digits) || adjacentThroughRepdigit(previous[0], digits, base),
+                        Arrays.toString(previous[0]) + " -> " + where);
+            }
+            previous[0] = digits.clone();
+        });
+        assertEquals(expected, visited);
+    }
+
+    // Repdigits are skipped, so two visited numbers may sit on either side of one
+    private static boolean adjacentThroughRepdigit(int[] from, int[] to, int base) {
+        for (int digit = 1; digit < base; digit++) {
+            int[] repdigit = new int[from.length];
+            Arrays.fill(repdigit, digit);
+            if (adjacent(from, repdigit) && adjacent(repdigit, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Exactly one digit differs, by exactly one
+    private static boolean adjacent(int[] a, int[] b) {
+        int differences = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                if (Math.abs(a[i] - b[i]) != 1) {
+                    return false;
+                }
+                differences++;
+            }
+        }
+        return differences == 1;
+    }
+} // End of class GrayCodeEnumeratorTest
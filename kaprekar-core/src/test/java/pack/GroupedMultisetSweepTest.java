@@ -0,0 +1,45 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+// The grouped sweep adds multisets by image group; that may not change what a sweep over every
+// number reports.
+class GroupedMultisetSweepTest {
+
+    @Test
+    void matchesFullSweepAcrossBases() {
+        for (int base = 3; base <= 11; base++) {
+            KaprekarAggregate full = o7_16_2025.runSweep(4, base, false, AnalysisEngine.BRENT, 1);
+            KaprekarAggregate swept = GroupedMultisetSweep.sweep(4, base, AnalysisEngine.SUCCESSOR_GRAPH, Long.MAX_VALUE);
+            assertEquals(Aggregates.describe(full), Aggregates.describe(swept), "base " + base);
+            assertTrue(swept.sameResults(full), "base " + base);
+        }
+    }
+
+    @Test
+    void matchesFullSweepOnLargerConfigurations() {
+        for (int[] configuration : new int[][] {{3, 5}, {5, 10}, {6, 5}, {4, 36}}) {
+            int n = configuration[0];
+            int base = configuration[1];
+            KaprekarAggregate full = o7_16_2025.runSweep(n, base, false, AnalysisEngine.SUCCESSOR_GRAPH, 1);
+            assertEquals(Aggregates.describe(full),
+                    Aggregates.describe(GroupedMultisetSweep.sweep(n, base, AnalysisEngine.SUCCESSOR_GRAPH, Long.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    void verifyPassesAndParallelismIsRejected() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        assertEquals(0, SweepDriver.run(new String[] {"--digits", "4..5", "--bases", "10..11", "--grouped", "--verify"}, out));
+        assertTrue(buffer.toString(StandardCharsets.UTF_8).contains("Verified against a cold full sweep."));
+        assertEquals(2, SweepDriver.run(new String[] {"--digits", "4", "--grouped", "--parallelism", "2"}, out));
+    }
+} // End of class GroupedMultisetSweepTest
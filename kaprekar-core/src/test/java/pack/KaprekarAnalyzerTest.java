@@ -0,0 +1,34 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class KaprekarAnalyzerTest {
+
+    // analyzeAll() takes the multiset or table shortcut, analyzeAll(consumer) visits every number
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10"})
+    void shortcutMatchesStreamingSweep(int n, int base) {
+        List<KaprekarResult> streamed = new ArrayList<>();
+        KaprekarAggregate reference = new KaprekarAnalyzer(n, base).analyzeAll(streamed::add);
+        assertEquals(reference.getTotalCheckedNumbers(), streamed.size());
+        for (int i = 1; i < streamed.size(); i++) {
+            assertTrue(Arrays.compare(streamed.get(i - 1).getInitialNumber(), streamed.get(i).getInitialNumber()) < 0);
+        }
+
+        String expected = Aggregates.describe(reference);
+        for (AnalysisEngine engine : AnalysisEngine.values()) {
+            for (int parallelism : new int[] {1, 3}) {
+                KaprekarAggregate shortcut = new KaprekarAnalyzer(n, base, engine, parallelism).analyzeAll();
+                assertEquals(expected, Aggregates.describe(shortcut), engine + " x" + parallelism);
+            }
+        }
+    }
+} // End of class KaprekarAnalyzerTest
@@ -0,0 +1,132 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// Both step kernels against the original sort-then-subtract: the int arithmetic while it is exact,
+// and BigInteger beyond it, on each side of the fitsInInt and fitsInLong boundaries.
+class KaprekarKernelTest {
+
+    @ParameterizedTest(name = "base {0}")
+    @ValueSource(ints = {2, 3, 7, 10, 16, 35, 36})
+    void kernelsMatchSortedSubtraction(int base) {
+        int intDigits = 1;
+        while (fitsInInt(intDigits + 1, base)) {
+            intDigits++;
+        }
+        int longDigits = intDigits;
+        while (KaprekarKernel.fitsInLong(longDigits + 1, base)) {
+            longDigits++;
+        }
+        assertFalse(fitsInInt(intDigits + 1, base));
+        assertFalse(KaprekarKernel.fitsInLong(longDigits + 1, base));
+
+        SplittableRandom random = new SplittableRandom(base);
+        for (int n : new int[] {2, intDigits, intDigits + 1, longDigits, longDigits + 1}) {
+            for (int[] digits : samples(n, base, random)) {
+                int[] expected = bigIntegerStep(digits, base);
+                if (fitsInInt(n, base)) {
+                    assertArrayEquals(expected, subtractSortedNumbersInt(
+                            o7_16_2025.getDecreasingOrder(digits), o7_16_2025.getIncreasingOrder(digits), n, base));
+                }
+
+                int[] wide = new int[n];
+                new WideKaprekarKernel(n, base).step(digits, wide);
+                assertArrayEquals(expected, wide, "wide, " + n + " digits");
+                if (KaprekarKernel.fitsInLong(n, base)) {
+                    long packed = KaprekarKernel.step(o7_16_2025.digitsToLong(digits, base), n, base, new int[base]);
+                    assertArrayEquals(expected, o7_16_2025.longToPaddedDigits(packed, n, base), "packed, " + n + " digits");
+                }
+            }
+        }
+    }
+
+    // The extremes (all top digits, a single zero or a single top digit, repdigits) and random numbers
+    private static List<int[]> samples(int n, int base, SplittableRandom random) {
+        List<int[]> samples = new ArrayList<>();
+        for (int special = 0; special < 4; special++) {
+            int[] digits = new int[n];
+            for (int i = 0; i < n; i++) {
+                digits[i] = special == 0 || special == 1 ? base - 1 : special == 2 ? 0 : 1;
+            }
+            if (special == 1) {
+                digits[n - 1] = 0;
+            } else if (special == 2) {
+                digits[0] = base - 1;
+            }
+            samples.add(digits);
+        }
+        for (int s = 0; s < 200; s++) {
+            int[] digits = new int[n];
+            for (int i = 0; i < n; i++) {
+                digits[i] = random.nextInt(base);
+            }
+            samples.add(digits);
+        }
+        return samples;
+    }
+
+    // The original int-based subtraction: only exact while base^n fits in an int
+    private static int[] subtractSortedNumbersInt(int[] decreasingDigits, int[] increasingDigits, int n, int base) {
+        int difference = convertDigitsToInt(decreasingDigits, base) - convertDigitsToInt(increasingDigits, base);
+        return convertIntToPaddedDigits(difference, n, base);
+    }
+
+    private static boolean fitsInInt(int n, int base) {
+        long power = 1;
+        for (int i = 0; i < n; i++) {
+            power *= base;
+            if (power > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int convertDigitsToInt(int[] digits, int base) {
+        int number = 0;
+        for (int digit : digits) {
+            number = number * base + digit;
+        }
+        return number;
+    }
+
+    private static int[] convertIntToPaddedDigits(int number, int n, int base) {
+        int[] result = new int[n];
+        for (int i = n - 1; i >= 0 && number > 0; i--) {
+            result[i] = number % base;
+            number /= base;
+        }
+        return result;
+    }
+
+    private static int[] bigIntegerStep(int[] digits, int base) {
+        int[] decreasing = o7_16_2025.getDecreasingOrder(digits);
+        int[] increasing = o7_16_2025.getIncreasingOrder(digits);
+        BigInteger difference = value(decreasing, base).subtract(value(increasing, base));
+        int[] result = new int[digits.length];
+        BigInteger big = BigInteger.valueOf(base);
+        for (int i = digits.length - 1; i >= 0; i--) {
+            BigInteger[] quotientAndRemainder = difference.divideAndRemainder(big);
+            result[i] = quotientAndRemainder[1].intValue();
+            difference = quotientAndRemainder[0];
+        }
+        return result;
+    }
+
+    private static BigInteger value(int[] digits, int base) {
+        BigInteger value = BigInteger.ZERO;
+        for (int digit : digits) {
+            value = value.multiply(BigInteger.valueOf(base)).add(BigInteger.valueOf(digit));
+        }
+        return value;
+    }
+} // End of class KaprekarKernelTest
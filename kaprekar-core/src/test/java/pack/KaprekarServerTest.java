@@ -0,0 +1,77 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+// Smoke test on the loopback interface: /summary must serve what a sweep over every number reports.
+class KaprekarServerTest {
+
+    @ParameterizedTest
+    @EnumSource(value = AnalysisEngine.class, names = {"SUCCESSOR_GRAPH", "BRENT", "DENSE_TABLE"})
+    void summaryMatchesStreamingSweep(AnalysisEngine engine) throws Exception {
+        KaprekarServer server = new KaprekarServer(0, engine, 2, 1, 4, Long.MAX_VALUE, null);
+        server.start();
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            for (int[] configuration : new int[][] {{3, 5}, {4, 10}, {4, 11}, {5, 10}}) {
+                int n = configuration[0];
+                int base = configuration[1];
+                HttpRequest request = HttpRequest.newBuilder(URI.create(
+                        "http://127.0.0.1:" + server.getPort() + "/summary?n=" + n + "&base=" + base)).build();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                assertEquals(200, response.statusCode());
+                KaprekarAggregate expected = new KaprekarAnalyzer(n, base).analyzeAll(result -> { });
+                assertEquals(summaryJson(expected), response.body(), n + " digits in base " + base);
+            }
+        } finally {
+            server.stop();
+        }
+    }
+
+    // The JSON that /summary documents, built independently of the server
+    private static String summaryJson(KaprekarAggregate aggregate) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"n\":").append(aggregate.getN()).append(",\"base\":").append(aggregate.getBase())
+            .append(",\"totalCheckedNumbers\":").append(aggregate.getTotalCheckedNumbers())
+            .append(",\"maxIterationsToFinal\":").append(aggregate.getMaxIterationsToFinal())
+            .append(",\"totalNumbersConvergedToCycles\":").append(aggregate.getTotalNumbersConvergedToCycles())
+            .append(",\"finalNumbers\":[");
+        List<int[]> finalNumbers = aggregate.getUniqueFinalNumbers();
+        for (int i = 0; i < finalNumbers.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("{\"number\":\"").append(digits(finalNumbers.get(i)))
+                .append("\",\"count\":").append(aggregate.getFinalNumberCounts()[i]).append('}');
+        }
+        json.append("],\"cycles\":[");
+        List<UniqueCycleRepresenter> cycles = aggregate.getUniqueCycles();
+        for (int i = 0; i < cycles.size(); i++) {
+            json.append(i == 0 ? "" : ",").append("{\"elements\":[");
+            List<int[]> elements = cycles.get(i).getExampleCycleElements();
+            for (int j = 0; j < elements.size(); j++) {
+                json.append(j == 0 ? "" : ",").append('"').append(digits(elements.get(j))).append('"');
+            }
+            json.append("],\"count\":").append(cycles.get(i).getCount()).append('}');
+        }
+        json.append("],\"iterationHistogram\":[");
+        long[] histogram = aggregate.getIterationHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            json.append(i == 0 ? "" : ",").append(histogram[i]);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String digits(int[] digits) {
+        StringBuilder text = new StringBuilder();
+        for (int digit : digits) {
+            text.append(Character.forDigit(digit, 36));
+        }
+        return text.toString();
+    }
+} // End of class KaprekarServerTest
@@ -0,0 +1,30 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    @Test
+    void behavesLikeHashMapThroughResizes() {
+        LongIntHashMap map = new LongIntHashMap(4, -1);
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(8);
+        for (int i = 0; i < 100_000; i++) {
+            // Small keys collide often, and the sentinel's value must be storable like any other
+            long key = i % 3 == 0 ? random.nextLong(1000) : i % 1000 == 1 ? Long.MIN_VALUE : random.nextLong();
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(-1, map.get(Long.MAX_VALUE));
+    }
+} // End of class LongIntHashMapTest
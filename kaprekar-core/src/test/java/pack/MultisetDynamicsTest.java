@@ -0,0 +1,49 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class MultisetDynamicsTest {
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"2, 2", "3, 5", "4, 10", "4, 11", "5, 10", "6, 3", "3, 36"})
+    void everyNumberMatchesTheReference(int n, int base) {
+        MultisetDynamics dynamics = new MultisetDynamics(n, base);
+        DigitArrays.forEach(n, base, digits -> {
+            if (o7_16_2025.checkedNumber(digits, base)) {
+                assertEquals(o7_16_2025.analyzeKaprekarSequence(digits.clone(), n, base).toString(),
+                        dynamics.analyze(digits).toString(), () -> Arrays.toString(digits));
+            }
+        });
+    }
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10"})
+    void sweepMatchesBrent(int n, int base) {
+        assertEquals(Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1)),
+                Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.MULTISET_DYNAMICS, 1)));
+    }
+
+    // Numbers too wide for a long, where only the digit-array walk is an independent reference
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"25, 10", "40, 7", "21, 16"})
+    void wideNumbersMatchBrent(int n, int base) {
+        MultisetDynamics dynamics = new MultisetDynamics(n, base);
+        SplittableRandom random = new SplittableRandom(n * 37L + base);
+        for (int sample = 0; sample < 200; sample++) {
+            int[] digits = new int[n];
+            do {
+                digits[0] = 1 + random.nextInt(base - 1);
+                for (int position = 1; position < n; position++) {
+                    digits[position] = random.nextInt(base);
+                }
+            } while (!o7_16_2025.checkedNumber(digits, base));
+            assertEquals(o7_16_2025.analyzeKaprekarSequenceBrent(digits.clone(), n, base).toString(),
+                    dynamics.analyze(digits).toString());
+        }
+    }
+} // End of class MultisetDynamicsTest
@@ -0,0 +1,36 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// A multiset sweep analyzes each digit multiset once and weights it, so it must report exactly
+// what a sweep over every number reports: counts, the iteration histogram and cycle rotations.
+class MultisetSweepTest {
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "6, 10", "4, 36", "6, 5", "5, 16"})
+    void multisetSweepMatchesFullSweep(int n, int base) {
+        String full = Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1));
+        assertEquals(full, Aggregates.describe(o7_16_2025.runSweep(n, base, true, AnalysisEngine.BRENT, 1)));
+        assertEquals(full, Aggregates.describe(o7_16_2025.runSweep(n, base, true, AnalysisEngine.SUCCESSOR_GRAPH, 1)));
+    }
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10"})
+    void parallelSweepsMatchFullSweep(int n, int base) {
+        String full = Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1));
+        assertEquals(full, Aggregates.describe(o7_16_2025.runSweep(n, base, true, AnalysisEngine.BRENT, 3)));
+        assertEquals(full, Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 3)));
+    }
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10"})
+    void enginesAgree(int n, int base) {
+        String full = Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.SEQUENCE_HISTORY, 1));
+        for (AnalysisEngine engine : AnalysisEngine.values()) {
+            assertEquals(full, Aggregates.describe(o7_16_2025.runSweep(n, base, false, engine, 1)), engine.name());
+        }
+    }
+} // End of class MultisetSweepTest
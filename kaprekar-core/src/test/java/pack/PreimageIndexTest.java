@@ -0,0 +1,73 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class PreimageIndexTest {
+
+    // A basin's depth is the forward iteration count, so the basins split the sweep's histogram
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10"})
+    void basinsAddUpToTheSweep(int n, int base) {
+        KaprekarAggregate aggregate = o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1);
+        PreimageIndex index = PreimageIndex.build(n, base);
+        List<PreimageIndex.Basin> basins = index.basins(aggregate);
+
+        long[] counts = new long[basins.size()];
+        long[] finalNumberCounts = aggregate.getFinalNumberCounts();
+        System.arraycopy(finalNumberCounts, 0, counts, 0, finalNumberCounts.length);
+        List<UniqueCycleRepresenter> cycles = aggregate.getUniqueCycles();
+        for (int i = 0; i < cycles.size(); i++) {
+            counts[finalNumberCounts.length + i] = cycles.get(i).getCount();
+        }
+
+        long[] histogram = new long[aggregate.getIterationHistogram().length];
+        for (int i = 0; i < basins.size(); i++) {
+            PreimageIndex.Basin basin = basins.get(i);
+            assertEquals(counts[i], basin.getSize());
+            long[] depths = basin.getDepthHistogram();
+            for (int depth = 0; depth < depths.length; depth++) {
+                histogram[depth] += depths[depth];
+            }
+
+            // The numbers at each depth are exactly those that take that many steps to this attractor
+            int[] element = basin.getAttractor().get(0);
+            for (int depth = 0; depth < depths.length; depth++) {
+                int expectedDepth = depth;
+                long[] seen = {0};
+                index.forEachAtDepth(element, depth, digits -> {
+                    KaprekarResult result = o7_16_2025.analyzeKaprekarSequenceBrent(digits, n, base);
+                    assertEquals(expectedDepth, result.getIterations());
+                    int[] attractor = result.getType() == ResultType.FINAL ? result.getFinalNumber()
+                            : UniqueCycleRepresenter.canonicalElement(result.getCycleElements());
+                    assertArrayEquals(UniqueCycleRepresenter.canonicalElement(basin.getAttractor()), attractor);
+                    seen[0]++;
+                });
+                assertEquals(depths[depth], seen[0]);
+            }
+        }
+        assertArrayEquals(aggregate.getIterationHistogram(), histogram);
+    }
+
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10"})
+    void preimagesStepOntoTheirValue(int n, int base) {
+        PreimageIndex index = PreimageIndex.build(n, base);
+        long[] preimageCount = {0};
+        DigitArrays.forEach(n, base, digits -> {
+            for (int[] preimage : index.preimagesOf(digits)) {
+                long next = KaprekarKernel.step(o7_16_2025.digitsToLong(preimage, base), n, base, new int[base]);
+                assertArrayEquals(digits, o7_16_2025.longToPaddedDigits(next, n, base), Arrays.toString(preimage));
+                preimageCount[0]++;
+            }
+        });
+        // Every value has exactly one successor
+        assertEquals((long) Math.pow(base, n), preimageCount[0]);
+    }
+} // End of class PreimageIndexTest
@@ -0,0 +1,71 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResultStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedAggregateLoadsBackUnchanged() throws IOException {
+        ResultStore store = new ResultStore(directory);
+        for (int[] configuration : new int[][] {{3, 5}, {4, 10}, {4, 11}, {5, 10}}) {
+            KaprekarAggregate swept = o7_16_2025.runSweep(configuration[0], configuration[1], false,
+                    AnalysisEngine.SUCCESSOR_GRAPH, 1);
+            store.save(swept);
+            KaprekarAggregate loaded = store.load(configuration[0], configuration[1]);
+            assertEquals(Aggregates.describe(swept), Aggregates.describe(loaded));
+            assertTrue(loaded.sameResults(swept));
+        }
+    }
+
+    @Test
+    void loadedAggregatesMergeLikeSweptOnes() throws IOException {
+        // Both halves reach the same cycles; the merge must keep the rotation of the smaller start
+        KaprekarAggregate low = new KaprekarAggregate(5, 10);
+        KaprekarAggregate high = new KaprekarAggregate(5, 10);
+        o7_16_2025.forEachNumber(5, 10, digits -> (digits[0] < 5 ? low : high)
+                .add(o7_16_2025.analyzeKaprekarSequenceBrent(digits, 5, 10)));
+        new ResultStore(directory.resolve("high")).save(high);
+        KaprekarAggregate merged = new ResultStore(directory.resolve("high")).load(5, 10);
+        merged.merge(low);
+        assertEquals(Aggregates.describe(o7_16_2025.runSweep(5, 10, false, AnalysisEngine.BRENT, 1)),
+                Aggregates.describe(merged));
+    }
+
+    @Test
+    void missingCorruptAndStaleFilesAreIgnored() throws IOException {
+        ResultStore store = new ResultStore(directory);
+        assertNull(store.load(4, 10));
+        store.save(o7_16_2025.runSweep(4, 10, false, AnalysisEngine.BRENT, 1));
+        Path file = store.fileFor(4, 10);
+        byte[] original = Files.readAllBytes(file);
+
+        byte[] corrupt = original.clone();
+        corrupt[corrupt.length - 1] ^= 1;
+        Files.write(file, corrupt);
+        assertNull(store.load(4, 10));
+
+        byte[] stale = original.clone();
+        ByteBuffer.wrap(stale).putInt(4, ResultStore.FORMAT_VERSION - 1);
+        Files.write(file, stale);
+        assertNull(store.load(4, 10));
+
+        // A file renamed to another configuration's name
+        Files.write(store.fileFor(4, 11), original);
+        assertNull(store.load(4, 11));
+
+        Files.write(file, original);
+        assertTrue(store.load(4, 10).sameResults(o7_16_2025.runSweep(4, 10, false, AnalysisEngine.BRENT, 1)));
+    }
+} // End of class ResultStoreTest
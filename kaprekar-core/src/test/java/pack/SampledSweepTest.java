@@ -0,0 +1,108 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SampledSweepTest {
+    @Test
+    void sameSeedGivesSameEstimateOnAnyParallelism() {
+        SampledSweep.Estimate serial = new SampledSweep(5, 10, AnalysisEngine.BRENT, 1)
+                .run(42, 0.02, Long.MAX_VALUE, Long.MAX_VALUE);
+        SampledSweep.Estimate parallel = new SampledSweep(5, 10, AnalysisEngine.SUCCESSOR_GRAPH, 3)
+                .run(42, 0.02, Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(SampledSweep.StopReason.PRECISION, serial.getStopReason());
+        assertTrue(serial.getMaxHalfWidth() <= 0.02);
+        assertEquals(SampledSweep.StopReason.PRECISION, parallel.getStopReason());
+        assertEquals(Aggregates.describe(serial.getAggregate()), Aggregates.describe(parallel.getAggregate()));
+        assertEquals(42, parallel.getSeed());
+    }
+
+    @Test
+    void sampleLimitIsExact() {
+        for (int parallelism : new int[] {1, 3}) {
+            SampledSweep.Estimate estimate = new SampledSweep(4, 11, AnalysisEngine.BRENT, parallelism)
+                    .run(7, 0, 5000, Long.MAX_VALUE);
+            assertEquals(SampledSweep.StopReason.SAMPLE_LIMIT, estimate.getStopReason());
+            assertEquals(5000, estimate.getSamples());
+        }
+    }
+
+    @Test
+    void expiredDeadlineStopsBeforeAnySample() {
+        for (int parallelism : new int[] {1, 3}) {
+            SampledSweep.Estimate estimate = new SampledSweep(4, 10, AnalysisEngine.BRENT, parallelism)
+                    .run(1, 0, Long.MAX_VALUE, System.nanoTime() - 1);
+            assertEquals(SampledSweep.StopReason.TIME_BUDGET, estimate.getStopReason());
+            assertEquals(0, estimate.getSamples());
+        }
+    }
+
+    // The full sweep's shares lie inside the estimate's intervals
+    @Test
+    void intervalsCoverTheFullSweep() {
+        KaprekarAggregate full = o7_16_2025.runSweep(5, 10, false, AnalysisEngine.BRENT, 1);
+        SampledSweep.Estimate estimate = new SampledSweep(5, 10, AnalysisEngine.BRENT, 1)
+                .run(3, 0, 20_000, Long.MAX_VALUE);
+        KaprekarAggregate sampled = estimate.getAggregate();
+        assertEquals(full.getUniqueCycles().size(), sampled.getUniqueCycles().size());
+        for (UniqueCycleRepresenter cycle : sampled.getUniqueCycles()) {
+            long fullCount = full.getUniqueCycles().stream()
+                    .filter(c -> c.toString().equals(cycle.toString()))
+                    .mapToLong(UniqueCycleRepresenter::getCount).sum();
+            double share = (double) fullCount / full.getTotalCheckedNumbers();
+            double[] interval = estimate.interval(cycle.getCount());
+            assertTrue(interval[0] <= share && share <= interval[1], cycle.toString());
+        }
+    }
+
+    @Test
+    void everyNumberReachesTheOnlyAttractor() {
+        SampledSweep.Estimate estimate = new SampledSweep(4, 10, AnalysisEngine.BRENT, 1)
+                .run(9, 0, 3000, Long.MAX_VALUE);
+        assertArrayEquals(new long[] {3000}, estimate.getAggregate().getFinalNumberCounts());
+        assertEquals(0, estimate.getAggregate().getTotalNumbersConvergedToCycles());
+    }
+
+    @Test
+    void wilsonInterval() {
+        double[] half = SampledSweep.wilsonInterval(50, 100);
+        assertEquals(0.4038, half[0], 1e-4);
+        assertEquals(0.5962, half[1], 1e-4);
+        double[] none = SampledSweep.wilsonInterval(0, 10);
+        assertEquals(0, none[0]);
+        assertEquals(0.2775, none[1], 1e-4);
+        double[] all = SampledSweep.wilsonInterval(10, 10);
+        assertEquals(0.7225, all[0], 1e-4);
+        assertEquals(1, all[1], 1e-12);
+    }
+
+    @Test
+    void maxHalfWidthIsTheWidestShare() {
+        assertEquals(1, SampledSweep.maxHalfWidth(new KaprekarAggregate(5, 10)));
+        KaprekarAggregate sampled = new SampledSweep(5, 10, AnalysisEngine.BRENT, 1)
+                .run(5, 0, 2000, Long.MAX_VALUE).getAggregate();
+        long samples = sampled.getTotalCheckedNumbers();
+        double widest = halfWidth(sampled.getTotalNumbersConvergedToCycles(), samples);
+        for (UniqueCycleRepresenter cycle : sampled.getUniqueCycles()) {
+            widest = Math.max(widest, halfWidth(cycle.getCount(), samples));
+        }
+        assertEquals(widest, SampledSweep.maxHalfWidth(sampled));
+    }
+
+    @Test
+    void rejectsSweepsWithoutAStoppingRule() {
+        assertThrows(IllegalArgumentException.class, () -> new SampledSweep(4, 10, AnalysisEngine.BRENT, 1)
+                .run(1, 0, Long.MAX_VALUE, Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new SampledSweep(1, 10, AnalysisEngine.BRENT, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SampledSweep(4, 37, AnalysisEngine.BRENT, 1));
+    }
+
+    private static double halfWidth(long successes, long samples) {
+        double[] interval = SampledSweep.wilsonInterval(successes, samples);
+        return (interval[1] - interval[0]) / 2;
+    }
+} // End of class SampledSweepTest
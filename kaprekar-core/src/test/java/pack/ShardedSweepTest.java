@@ -0,0 +1,63 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ShardedSweepTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void shardsCoverEveryChunkOnce() {
+        for (long chunkCount = 0; chunkCount <= 50; chunkCount++) {
+            for (int shards = 1; shards <= 8; shards++) {
+                assertEquals(0, ShardedSweep.firstChunk(chunkCount, 0, shards));
+                assertEquals(chunkCount, ShardedSweep.firstChunk(chunkCount, shards, shards));
+                for (int shard = 0; shard < shards; shard++) {
+                    long length = ShardedSweep.firstChunk(chunkCount, shard + 1, shards)
+                            - ShardedSweep.firstChunk(chunkCount, shard, shards);
+                    assertTrue(length == chunkCount / shards || length == chunkCount / shards + 1);
+                }
+            }
+        }
+    }
+
+    // Partial files already in the directory are reused, so no worker process is started here
+    @ParameterizedTest(name = "{0} digits in base {1}, multisets: {2}")
+    @CsvSource({"3, 5, false", "4, 10, true", "4, 11, false", "5, 10, true", "5, 10, false"})
+    void partialFilesMergeToTheFullSweep(int n, int base, boolean multiset) throws IOException {
+        int shards = 3;
+        ShardedSweep sharded = new ShardedSweep(directory, shards, 0, AnalysisEngine.BRENT);
+        KaprekarAggregate reversed = new KaprekarAggregate(n, base);
+        for (int shard = shards - 1; shard >= 0; shard--) {
+            KaprekarAggregate part = ShardedSweep.sweepShard(n, base, multiset, AnalysisEngine.BRENT, shard, shards,
+                    Long.MAX_VALUE);
+            ShardedSweep.writePartial(sharded.fileFor(n, base, multiset, shard), part, multiset, shard, shards);
+            reversed.merge(part);
+        }
+
+        String full = Aggregates.describe(o7_16_2025.runSweep(n, base, false, AnalysisEngine.BRENT, 1));
+        assertEquals(full, Aggregates.describe(reversed));
+        assertEquals(full, Aggregates.describe(sharded.run(n, base, multiset, Long.MAX_VALUE)));
+        for (int shard = 0; shard < shards; shard++) {
+            assertFalse(Files.exists(sharded.fileFor(n, base, multiset, shard)));
+        }
+    }
+
+    @Test
+    void workerProcessesSweepTheirShards() {
+        ShardedSweep sharded = new ShardedSweep(directory, 2, 0, AnalysisEngine.SUCCESSOR_GRAPH);
+        assertEquals(Aggregates.describe(o7_16_2025.runSweep(4, 11, false, AnalysisEngine.BRENT, 1)),
+                Aggregates.describe(sharded.run(4, 11, true, Long.MAX_VALUE)));
+    }
+} // End of class ShardedSweepTest
@@ -0,0 +1,26 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class SuccessorGraphTest {
+
+    // Every digit array, so memoized tails are reused from every possible entry point
+    @ParameterizedTest(name = "{0} digits in base {1}")
+    @CsvSource({"3, 5", "4, 10", "4, 11", "5, 10", "2, 36", "6, 3"})
+    void matchesReferenceAnalysis(int n, int base) {
+        SuccessorGraph graph = new SuccessorGraph(n, base);
+        DigitArrays.forEach(n, base, digits -> assertEquals(
+                o7_16_2025.analyzeKaprekarSequence(digits, n, base).toString(), graph.analyze(digits).toString()));
+        int nodes = graph.getNodeCount();
+
+        // A second pass only reads the memo
+        DigitArrays.forEach(n, base, digits -> assertEquals(
+                o7_16_2025.analyzeKaprekarSequence(digits, n, base).toString(), graph.analyze(digits).toString()));
+        assertEquals(nodes, graph.getNodeCount());
+        assertTrue(nodes < Math.pow(base, n));
+    }
+} // End of class SuccessorGraphTest
@@ -0,0 +1,77 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SweepDriverTest {
+
+    private static String run(int expectedStatus, String... args) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(buffer, true, StandardCharsets.UTF_8);
+        assertEquals(expectedStatus, SweepDriver.run(args, out), String.join(" ", args));
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void reportsComeOutCheapestFirst() {
+        // Configurations are scheduled by cost, and two jobs must not change the printed order
+        String output = run(0, "--digits", "5,3..4", "--bases", "10", "--jobs", "2");
+        int three = output.indexOf("for 3-digit numbers in Base 10.");
+        int four = output.indexOf("for 4-digit numbers in Base 10.");
+        int five = output.indexOf("for 5-digit numbers in Base 10.");
+        assertTrue(three >= 0 && three < four && four < five, output);
+        assertTrue(output.contains("converge to the single final number: [4, 9, 5]"), output);
+        assertTrue(output.contains("converge to the single final number: [6, 1, 7, 4]"), output);
+    }
+
+    @Test
+    void everyModeVerifiesAgainstTheFullSweep() {
+        for (String[] mode : new String[][] {{}, {"--multiset"}, {"--grouped"}, {"--engine", "DENSE_TABLE"},
+                {"--multiset", "--parallelism", "2"}}) {
+            String[] args = new String[mode.length + 5];
+            System.arraycopy(new String[] {"--digits", "3..5", "--bases", "5,10..11", "--verify"}, 0, args, 0, 5);
+            System.arraycopy(mode, 0, args, 5, mode.length);
+            String output = run(0, args);
+            assertEquals(9, output.split("Verified against a cold full sweep\\.", -1).length - 1, output);
+        }
+    }
+
+    @Test
+    void numbersTooWideForALongFallBackToOneThread() {
+        // The parallel digit-space split needs packed values; wider sweeps run sequentially instead of failing
+        String output = run(0, "--digits", "63", "--bases", "2", "--parallelism", "2", "--time-budget", "0.2");
+        assertTrue(output.contains("Skipped 63-digit numbers in Base 2: exceeded the time budget"), output);
+        output = run(0, "--digits", "63", "--bases", "2", "--multiset", "--parallelism", "2");
+        assertTrue(output.contains("Swept 1 of 1 configurations"), output);
+    }
+
+    @Test
+    void failedSweepsAreReportedAndExitWithStatus1(@TempDir Path directory) throws Exception {
+        // A regular file where the shard directory should be makes every sweep fail
+        Path notADirectory = Files.createFile(directory.resolve("shards"));
+        String output = run(1, "--digits", "3..4", "--bases", "10", "--shards", "2", "--shard-dir", notADirectory.toString());
+        assertTrue(output.contains("Error: the sweep of 3-digit numbers in Base 10 failed: "), output);
+        assertTrue(output.contains("Error: the sweep of 4-digit numbers in Base 10 failed: "), output);
+        assertTrue(output.contains("Swept 0 of 2 configurations"), output);
+    }
+
+    @Test
+    void badArgumentsExitWithStatus2() {
+        run(2, "--no-such-option");
+        run(2, "--digits", "four");
+        run(2, "--parallelism", "0");
+        run(2, "--engine", "QUANTUM");
+        run(2, "--resume");
+        run(2, "--digits", "3..300000000");
+        run(2, "--bases", "2..2147483647");
+    }
+} // End of class SweepDriverTest
@@ -0,0 +1,54 @@
+package pack;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import javax.management.JMX;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Runs in its own JVM with -Dkaprekar.metrics=true (see the "metrics" surefire execution).
+class SweepMetricsTest {
+    private SweepMetricsMXBean metrics;
+
+    @BeforeEach
+    void reset() throws MalformedObjectNameException {
+        SweepMetrics.start();
+        metrics = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName("pack:type=SweepMetrics"), SweepMetricsMXBean.class);
+        assertTrue(metrics.isEnabled());
+        metrics.reset();
+    }
+
+    @Test
+    void grayCodeSweepCountsEveryNumbersTrajectory() {
+        // The Gray code sweep analyzes one number per image; the plain sweep analyzes them all
+        GrayCodeSweep.run(5, 10, Long.MAX_VALUE);
+        long trajectories = metrics.getTrajectories();
+        long[] histogram = metrics.getStepsPerTrajectoryHistogram();
+
+        metrics.reset();
+        o7_16_2025.runSweep(5, 10, false, AnalysisEngine.BRENT, 1);
+        assertEquals(MultisetEnumerator.countValidNumbers(5, 10), metrics.getTrajectories());
+        assertEquals(metrics.getTrajectories(), trajectories);
+        assertArrayEquals(metrics.getStepsPerTrajectoryHistogram(), histogram);
+        assertEquals(trajectories, Arrays.stream(histogram).sum());
+    }
+
+    @Test
+    void malformedProgressIntervalsTurnTheProgressLineOffAndTinyOnesAreClamped() {
+        assertEquals(0, SweepMetrics.parseProgressSeconds(null));
+        assertEquals(2.5, SweepMetrics.parseProgressSeconds("2.5"));
+        assertEquals(0, SweepMetrics.parseProgressSeconds("0"));
+        assertEquals(0.001, SweepMetrics.parseProgressSeconds("0.0001"));
+        for (String malformed : new String[] {"", "ten", "-1", "NaN", "Infinity"}) {
+            assertEquals(0, SweepMetrics.parseProgressSeconds(malformed), malformed);
+        }
+    }
+} // End of class SweepMetricsTest
@@ -0,0 +1,34 @@
+package pack;
+
+import java.util.SplittableRandom;
+
+// Reproducible random inputs shared by the benchmarks.
+final class BenchmarkInputs {
+    // Number of distinct inputs a benchmark cycles through per invocation
+    static final int SIZE = 1024;
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Draws valid n-digit numbers (no leading zero, not all digits equal) with a fixed seed.
+     * @param n The number of digits.
+     * @param base The base of the number system.
+     * @return SIZE digit arrays.
+     */
+    static int[][] validNumbers(int n, int base) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[][] numbers = new int[SIZE][];
+        for (int i = 0; i < SIZE; i++) {
+            int[] digits = new int[n];
+            do {
+                digits[0] = 1 + random.nextInt(base - 1);
+                for (int j = 1; j < n; j++) {
+                    digits[j] = random.nextInt(base);
+                }
+            } while (!o7_16_2025.checkedNumber(digits, base));
+            numbers[i] = digits;
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,108 @@
+package pack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A single Kaprekar step: the packed-long kernel, the wide digit-array kernel, the batch kernel
+// (scalar, and with the Vector API in a fork that adds its module) and the sort-then-subtract
+// reference (sortDigits, which builds both orders from one histogram, then subtractSortedNumbers).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(BenchmarkInputs.SIZE)
+public class StepKernelBenchmark {
+
+    @Param({"4", "5", "6", "7", "8"})
+    int n;
+
+    @Param({"2", "10", "16", "36"})
+    int base;
+
+    private int[][] numbers;
+    private long[] packedNumbers;
+    private KaprekarKernel kernel;
+    private WideKaprekarKernel wideKernel;
+    private int[] wideResult;
+    private BatchKaprekarKernel scalarBatch;
+    private BatchKaprekarKernel batch;
+
+    @Setup
+    public void setUp() {
+        numbers = BenchmarkInputs.validNumbers(n, base);
+        packedNumbers = new long[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            packedNumbers[i] = o7_16_2025.digitsToLong(numbers[i], base);
+        }
+        kernel = new KaprekarKernel(n, base);
+        wideKernel = new WideKaprekarKernel(n, base);
+        wideResult = new int[n];
+        scalarBatch = new BatchKaprekarKernel(n, base, numbers.length);
+        batch = BatchKaprekarKernel.create(n, base, numbers.length);
+        for (int i = 0; i < numbers.length; i++) {
+            scalarBatch.setNumber(i, numbers[i]);
+            batch.setNumber(i, numbers[i]);
+        }
+    }
+
+    @Benchmark
+    public long packedKernel() {
+        long sum = 0;
+        for (long number : packedNumbers) {
+            sum += kernel.step(number);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int wideKernel() {
+        int sum = 0;
+        for (int[] digits : numbers) {
+            wideKernel.step(digits, wideResult);
+            sum += wideResult[n - 1];
+        }
+        return sum;
+    }
+
+    // The batch kernels step their lanes in place, so later invocations see later points of the
+    // trajectories; with no data-dependent branches their cost does not depend on the digits
+    @Benchmark
+    public int batchKernelScalar() {
+        scalarBatch.step(numbers.length);
+        return scalarBatch.digits[n - 1][0];
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int batchKernelVector() {
+        batch.step(numbers.length);
+        return batch.digits[n - 1][0];
+    }
+
+    @Benchmark
+    public int sortedSubtraction() {
+        int sum = 0;
+        int[] decreasing = new int[n];
+        int[] increasing = new int[n];
+        for (int[] digits : numbers) {
+            o7_16_2025.sortDigits(digits, base, decreasing, increasing);
+            int[] next = o7_16_2025.subtractSortedNumbers(decreasing, increasing, n, base);
+            sum += next[n - 1];
+        }
+        return sum;
+    }
+}
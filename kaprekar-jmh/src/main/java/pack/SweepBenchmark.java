@@ -0,0 +1,61 @@
+package pack;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Full (n, base) sweeps as run by o7_16_2025.main, minus the printing, plus the input generators
+// (lexicographic, and Gray code with first successors) on their own. Defaults stay small enough
+// for a brute-force sweep to finish in seconds; pass larger values with -p n=... -p base=... for
+// multiset sweeps.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SweepBenchmark {
+
+    @Param({"4", "5", "6"})
+    int n;
+
+    @Param({"2", "10", "16"})
+    int base;
+
+    @Benchmark
+    public KaprekarAggregate bruteForceSweep() {
+        return o7_16_2025.runSweep(n, base, false, AnalysisEngine.SUCCESSOR_GRAPH, 1);
+    }
+
+    @Benchmark
+    public KaprekarAggregate multisetSweep() {
+        return o7_16_2025.runSweep(n, base, true, AnalysisEngine.SUCCESSOR_GRAPH, 1);
+    }
+
+    @Benchmark
+    public KaprekarAggregate denseTableSweep() {
+        // Builds the table every time instead of reusing the resident one
+        return DenseKaprekarTable.build(n, base, Long.MAX_VALUE).aggregate();
+    }
+
+    @Benchmark
+    public int generateAllNumbers() {
+        return o7_16_2025.generateAllNumbers(n, base).size();
+    }
+
+    @Benchmark
+    public long grayCodeEnumeration() {
+        long[] sum = new long[1];
+        GrayCodeEnumerator.forEachNumber(n, base, (digits, counts, number, image) -> sum[0] += image);
+        return sum[0];
+    }
+}
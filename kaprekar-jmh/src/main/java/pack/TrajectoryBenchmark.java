@@ -0,0 +1,55 @@
+package pack;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Analysis of whole trajectories, one KaprekarResult per input, for each AnalysisEngine.
+// The successor graph is created once per trial, so it measures the warm (memoized) case.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(BenchmarkInputs.SIZE)
+public class TrajectoryBenchmark {
+
+    @Param({"4", "5", "6", "7", "8"})
+    int n;
+
+    @Param({"2", "10", "16", "36"})
+    int base;
+
+    @Param({"SEQUENCE_HISTORY", "BRENT", "SUCCESSOR_GRAPH", "MULTISET_DYNAMICS"})
+    String engine;
+
+    private int[][] numbers;
+    private Function<int[], KaprekarResult> analyzer;
+
+    @Setup
+    public void setUp() {
+        numbers = BenchmarkInputs.validNumbers(n, base);
+        analyzer = AnalysisEngine.valueOf(engine).newAnalyzer(n, base);
+    }
+
+    @Benchmark
+    public void analyze(Blackhole blackhole) {
+        for (int[] digits : numbers) {
+            blackhole.consume(analyzer.apply(digits));
+        }
+    }
+}